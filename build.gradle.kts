@@ -3,6 +3,7 @@ plugins {
   id("org.jetbrains.kotlin.jvm") version "1.9.23"
   id("org.jetbrains.intellij") version "1.17.3"
   id("com.diffplug.spotless") version "6.25.0"
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "io.github.tandemdude"
@@ -41,6 +42,20 @@ spotless {
   }
 }
 
+// Benchmarks using the IDE test fixtures run inside a test application, so need the same
+// classpath and JVM arguments as tests - run with './gradlew jmh'
+configurations {
+  named("jmhImplementation") { extendsFrom(configurations.testImplementation.get()) }
+  named("jmhRuntimeOnly") { extendsFrom(configurations.testRuntimeOnly.get()) }
+}
+
+jmh {
+  resultFormat.set("JSON")
+  resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+  humanOutputFile.set(layout.buildDirectory.file("reports/jmh/results.txt"))
+  jvmArgsAppend.addAll(provider { tasks.test.get().allJvmArgs })
+}
+
 tasks {
   // Set the JVM compatibility versions
   withType<JavaCompile> {
@@ -66,4 +81,6 @@ tasks {
   }
 
   publishPlugin { token.set(System.getenv("PUBLISH_TOKEN")) }
+
+  named("jmh") { dependsOn(prepareTestingSandbox) }
 }
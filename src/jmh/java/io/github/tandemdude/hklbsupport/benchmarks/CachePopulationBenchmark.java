@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.benchmarks;
+
+import com.intellij.testFramework.EdtTestUtil;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks reloading the Lightbulb data for the project's SDK while the project contains an increasing
+ * number of unrelated JSON files. The {@code metaparams.json} file is found using the SDK's library roots,
+ * so the cost should not depend on the number of JSON files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CachePopulationBenchmark {
+    @Param({"0", "1000", "10000"})
+    public int jsonFileCount;
+
+    private LightbulbFixture fixture;
+    private ProjectDataService service;
+
+    @Setup
+    public void setup() throws Exception {
+        fixture = new LightbulbFixture();
+        EdtTestUtil.runInEdtAndWait(() -> {
+            for (var i = 0; i < jsonFileCount; i++) {
+                fixture.getFixture().addFileToProject("fixtures/data" + i + ".json", "{}");
+            }
+        });
+        service = fixture.getProject().getService(ProjectDataService.class);
+        fixture.loadLightbulbData();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.tearDown();
+    }
+
+    /** Reload the data when the installation is unchanged, reusing the persisted and shared data. */
+    @Benchmark
+    public void reload() {
+        service.notifyChange(fixture.getSdk(), false);
+    }
+
+    /** Reload the data as the refresh action does, parsing the configuration file again. */
+    @Benchmark
+    public void forcedReload() {
+        service.notifyChange(fixture.getSdk(), true);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.benchmarks;
+
+import com.intellij.openapi.application.ReadAction;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import io.github.tandemdude.hklbsupport.models.LightbulbData;
+import io.github.tandemdude.hklbsupport.utils.Utils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks resolving the Lightbulb superclass and superclass keyword arguments of every class within a
+ * generated module. The PSI caches are dropped before each invocation, so that the cost of the first
+ * analysis of the module is measured rather than that of a cache lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CommandResolutionBenchmark {
+    @Param({"100", "500"})
+    public int commandCount;
+
+    private LightbulbFixture fixture;
+    private List<PyClass> classes;
+    private LightbulbData data;
+
+    @Setup
+    public void setup() throws Exception {
+        fixture = new LightbulbFixture();
+        classes = fixture.addCommandsFile("commands.py", commandCount);
+        fixture.loadLightbulbData();
+        data = ReadAction.compute(() -> Utils.getLightbulbDataForNode(classes.get(0)));
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCaches() {
+        fixture.dropCaches();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public int getLightbulbSuperclass() {
+        return ReadAction.compute(() -> {
+            var found = 0;
+            for (var cls : classes) {
+                var context = TypeEvalContext.codeAnalysis(cls.getProject(), cls.getContainingFile());
+                if (Utils.getLightbulbSuperclass(context, cls, data) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    @Benchmark
+    public int getKeywordSuperclassExpressions() {
+        return ReadAction.compute(() -> {
+            var found = 0;
+            for (var cls : classes) {
+                found += Utils.getKeywordSuperclassExpressions(cls).size();
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.benchmarks;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.testFramework.EdtTestUtil;
+import io.github.tandemdude.hklbsupport.CommandDuplicateNameInspector;
+import io.github.tandemdude.hklbsupport.CommandDuplicateParametersInspector;
+import io.github.tandemdude.hklbsupport.CommandParameterTypeInspector;
+import io.github.tandemdude.hklbsupport.CommandRequiredParametersInspector;
+import io.github.tandemdude.hklbsupport.CommandUnknownParametersInspector;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks highlighting a generated module containing many command classes with all of the plugin's
+ * inspections enabled. The PSI caches are dropped before each invocation, so that the module is analysed
+ * from scratch as it would be after an edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InspectionBenchmark {
+    @Param({"100", "500"})
+    public int commandCount;
+
+    private LightbulbFixture fixture;
+
+    @Setup
+    public void setup() throws Exception {
+        fixture = new LightbulbFixture();
+        var source = LightbulbFixture.generateCommands(commandCount);
+        var codeInsight = fixture.getFixture();
+        EdtTestUtil.runInEdtAndWait(() -> {
+            codeInsight.enableInspections(
+                    CommandRequiredParametersInspector.class,
+                    CommandParameterTypeInspector.class,
+                    CommandDuplicateParametersInspector.class,
+                    CommandDuplicateNameInspector.class,
+                    CommandUnknownParametersInspector.class);
+            codeInsight.configureByText("commands.py", source);
+        });
+        fixture.loadLightbulbData();
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCaches() {
+        fixture.dropCaches();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public List<HighlightInfo> doHighlighting() {
+        return EdtTestUtil.runInEdtAndGet(() -> fixture.getFixture().doHighlighting());
+    }
+}
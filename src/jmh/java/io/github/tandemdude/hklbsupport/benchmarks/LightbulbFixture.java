@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.benchmarks;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.TestApplicationManager;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.impl.LightTempDirTestFixtureImpl;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyFile;
+import com.jetbrains.python.sdk.PythonSdkType;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Light project fixture for the benchmarks that run inside a test application. The project's module uses
+ * a Python SDK whose only library root contains a generated Lightbulb installation, declaring the
+ * {@code SlashCommand}, {@code UserCommand} and {@code MessageCommand} classes.<br>
+ * <br>
+ * Must be created and torn down from a benchmark thread, not the EDT.
+ */
+final class LightbulbFixture {
+    private static final String COMMANDS_MODULE = """
+            class CommandBase:
+                def __init_subclass__(cls, **kwargs): ...
+
+            class SlashCommand(CommandBase): ...
+
+            class UserCommand(CommandBase): ...
+
+            class MessageCommand(CommandBase): ...
+            """;
+    private static final String INIT_MODULE = """
+            from lightbulb.commands import *
+
+            __version__ = "3.0.0"
+            """;
+    private static final String PARAMS = """
+            {"required": {"name": "str", "description": "str"}, "optional": {"nsfw": "bool", "localize": "bool",
+            "dm_enabled": "bool", "default_member_permissions": "int", "hooks": "collections.abc.Sequence[str]"}}""";
+
+    private final Path sdkHome;
+    private final Sdk sdk;
+    private final CodeInsightTestFixture fixture;
+
+    LightbulbFixture() throws Exception {
+        TestApplicationManager.getInstance();
+
+        sdkHome = Files.createTempDirectory("lightbulb-benchmark");
+        var packageDir = Files.createDirectories(sdkHome.resolve("lib/site-packages/lightbulb"));
+        Files.writeString(packageDir.resolve("__init__.py"), INIT_MODULE);
+        Files.writeString(packageDir.resolve("commands.py"), COMMANDS_MODULE);
+        Files.writeString(
+                packageDir.resolve("metaparams.json"),
+                String.format(
+                        "{\"lightbulb.commands.SlashCommand\": %s, \"lightbulb.commands.UserCommand\": %s,"
+                                + " \"lightbulb.commands.MessageCommand\": %s}",
+                        PARAMS, PARAMS, PARAMS),
+                StandardCharsets.UTF_8);
+
+        sdk = EdtTestUtil.runInEdtAndGet(() -> {
+            var libRoot = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(packageDir.getParent());
+            var created = ProjectJdkTable.getInstance().createSdk("Lightbulb Benchmark", PythonSdkType.getInstance());
+            var modificator = created.getSdkModificator();
+            modificator.setHomePath(sdkHome.resolve("bin/python").toString());
+            modificator.setVersionString("Python 3.11.0");
+            modificator.addRoot(libRoot, OrderRootType.CLASSES);
+            WriteAction.run(() -> {
+                modificator.commitChanges();
+                ProjectJdkTable.getInstance().addJdk(created);
+            });
+            return created;
+        });
+
+        var descriptor = new LightProjectDescriptor() {
+            @Override
+            public @NotNull String getModuleTypeId() {
+                return "PYTHON_MODULE";
+            }
+
+            @Override
+            public Sdk getSdk() {
+                return sdk;
+            }
+        };
+        var factory = IdeaTestFixtureFactory.getFixtureFactory();
+        fixture = factory.createCodeInsightFixture(
+                factory.createLightFixtureBuilder(descriptor, "LightbulbBenchmark").getFixture(),
+                new LightTempDirTestFixtureImpl(true));
+        EdtTestUtil.runInEdtAndWait(fixture::setUp);
+    }
+
+    CodeInsightTestFixture getFixture() {
+        return fixture;
+    }
+
+    Project getProject() {
+        return fixture.getProject();
+    }
+
+    Sdk getSdk() {
+        return sdk;
+    }
+
+    /**
+     * Generate the source of a module containing the given number of command classes. Half of the classes
+     * inherit from Lightbulb through an intermediate base class, and every tenth class passes a parameter
+     * with the wrong type or omits a required parameter, so that the inspections have problems to report.
+     *
+     * @param commandCount the number of command classes to generate.
+     * @return the generated source.
+     */
+    static String generateCommands(int commandCount) {
+        var source = new StringBuilder("import lightbulb\n\n\nclass BaseCommand(lightbulb.SlashCommand):\n    pass\n");
+        for (var i = 0; i < commandCount; i++) {
+            var base = i % 2 == 0 ? "lightbulb.SlashCommand" : "BaseCommand";
+            var parameters = switch (i % 10) {
+                case 3 -> "name=\"command-%d\", nsfw=\"yes\"".formatted(i);
+                case 7 -> "name=\"command-%d\"".formatted(i);
+                default -> "name=\"command-%d\", description=\"Command %d\", nsfw=False".formatted(i, i);
+            };
+            source.append("\n\nclass Command%d(%s, %s):\n    pass\n".formatted(i, base, parameters));
+        }
+        return source.toString();
+    }
+
+    /**
+     * Add a module containing the given number of generated command classes to the project.
+     *
+     * @param path the path of the module, relative to the project's content root.
+     * @param commandCount the number of command classes to generate.
+     * @return the command classes defined by the module.
+     */
+    List<PyClass> addCommandsFile(String path, int commandCount) {
+        var file = EdtTestUtil.runInEdtAndGet(() -> fixture.addFileToProject(path, generateCommands(commandCount)));
+        return ReadAction.compute(() -> List.copyOf(PsiTreeUtil.findChildrenOfType((PyFile) file, PyClass.class)));
+    }
+
+    /** Load the Lightbulb data for the project's SDK, so that the benchmarks do not wait for a background load. */
+    void loadLightbulbData() {
+        getProject().getService(ProjectDataService.class).loadMissingModuleSdks();
+    }
+
+    /** Drop all cached PSI data, including values cached using the PSI modification count. */
+    void dropCaches() {
+        EdtTestUtil.runInEdtAndWait(() -> WriteAction.run(() -> PsiManager.getInstance(getProject()).dropPsiCaches()));
+    }
+
+    void tearDown() throws Exception {
+        EdtTestUtil.runInEdtAndWait(() -> {
+            fixture.tearDown();
+            WriteAction.run(() -> ProjectJdkTable.getInstance().removeJdk(sdk));
+        });
+        FileUtil.delete(sdkHome);
+    }
+}
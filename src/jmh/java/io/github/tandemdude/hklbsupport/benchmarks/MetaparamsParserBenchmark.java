@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.tandemdude.hklbsupport.models.ParamData;
+import io.github.tandemdude.hklbsupport.utils.MetaparamsParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing of a generated {@code metaparams.json} file using {@link MetaparamsParser}, compared
+ * to the {@link ObjectMapper} data binding previously used to read the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetaparamsParserBenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] TYPES = {"str", "bool", "int", "hikari.Permissions", "collections.abc.Sequence[str]"};
+
+    @Param({"10", "100", "1000"})
+    public int commandCount;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        var json = new StringBuilder("{");
+        for (var i = 0; i < commandCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"lightbulb.commands.Command").append(i).append("\":{\"required\":{");
+            json.append("\"name\":\"str\",\"description\":\"str\"},\"optional\":{");
+            for (var j = 0; j < 8; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("\"param").append(j).append("\":\"").append(TYPES[j % TYPES.length]).append('"');
+            }
+            json.append("}}");
+        }
+        content = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, ParamData> streamingParser() throws IOException {
+        return MetaparamsParser.parse(content, new ArrayList<>());
+    }
+
+    @Benchmark
+    public Map<String, ParamData> objectMapper() throws IOException {
+        return MAPPER.readValue(content, new TypeReference<Map<String, ParamData>>() {});
+    }
+}
@@ -0,0 +1,522 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentHashMap;
+import com.intellij.util.io.PersistentMapBuilder;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
+import io.github.tandemdude.hklbsupport.models.CachedLightbulbData;
+import io.github.tandemdude.hklbsupport.models.LightbulbData;
+import io.github.tandemdude.hklbsupport.models.ParamData;
+import io.github.tandemdude.hklbsupport.utils.MetaparamsParser;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Application level service responsible for loading the Lightbulb configuration for each SDK.<br>
+ * <br>
+ * Parsed configurations are interned by Lightbulb version and {@code metaparams.json} content hash, so
+ * that all projects using the same installation share a single instance, and are persisted to disk so
+ * that they do not need to be re-parsed when the installation has not changed since it was last loaded.
+ * Each SDK's data is stored as a separate entry, which is only read when that SDK is loaded and only
+ * written when that SDK's data changes.
+ */
+@Service(Service.Level.APP)
+public final class ApplicationDataService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ApplicationDataService.class);
+    private static final Pattern VERSION_PATTERN = Pattern.compile("__version__\\s*=\\s*\"([^\"]+)\"");
+    // Must be incremented whenever the format written by the externalizer changes
+    private static final int STORE_VERSION = 2;
+
+    /**
+     * The maximum number of SDKs whose data is persisted. The least recently used entries are removed when
+     * this is exceeded, and entries for SDKs whose home path no longer exists are removed regardless.
+     */
+    public static final int MAX_PERSISTED_SDKS = 32;
+
+    private static final DataExternalizer<CachedLightbulbData> EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, CachedLightbulbData value) throws IOException {
+            IOUtil.writeUTF(out, value.version());
+            DataInputOutputUtil.writeLONG(out, value.metaparamsStamp());
+            DataInputOutputUtil.writeLONG(out, value.metaparamsLength());
+            DataInputOutputUtil.writeLONG(out, value.initStamp());
+            IOUtil.writeUTF(out, value.contentHash());
+            DataInputOutputUtil.writeINT(out, value.paramData().size());
+            for (var command : value.paramData().entrySet()) {
+                IOUtil.writeUTF(out, command.getKey());
+                writeParams(out, command.getValue().required());
+                writeParams(out, command.getValue().optional());
+            }
+            DataInputOutputUtil.writeLONG(out, value.lastUsed());
+        }
+
+        @Override
+        public CachedLightbulbData read(@NotNull DataInput in) throws IOException {
+            var version = IOUtil.readUTF(in);
+            var metaparamsStamp = DataInputOutputUtil.readLONG(in);
+            var metaparamsLength = DataInputOutputUtil.readLONG(in);
+            var initStamp = DataInputOutputUtil.readLONG(in);
+            var contentHash = IOUtil.readUTF(in);
+
+            // Intern the parameter names and types, as the parser does, as the same few are used by every command
+            var interned = new HashMap<String, String>();
+            var commandCount = DataInputOutputUtil.readINT(in);
+            var paramData = new HashMap<String, ParamData>(commandCount);
+            for (var i = 0; i < commandCount; i++) {
+                var commandName = IOUtil.readUTF(in);
+                paramData.put(commandName, new ParamData(readParams(in, interned), readParams(in, interned)));
+            }
+            return new CachedLightbulbData(
+                    version,
+                    metaparamsStamp,
+                    metaparamsLength,
+                    initStamp,
+                    contentHash,
+                    Collections.unmodifiableMap(paramData),
+                    DataInputOutputUtil.readLONG(in));
+        }
+    };
+
+    private final Path storeFile = Path.of(PathManager.getSystemPath(), "hikari-lightbulb-support", "metaparams");
+
+    /**
+     * Identifies a Lightbulb installation - two SDKs with the same key have identical configurations.
+     *
+     * @param version the installed Lightbulb version.
+     * @param contentHash the hash of the installation's {@code metaparams.json} file contents.
+     */
+    private record DataKey(String version, String contentHash) {}
+
+    // Values are only weakly referenced - once no project references the data it can be collected
+    private final ConcurrentMap<DataKey, LightbulbData> interned = ContainerUtil.createConcurrentWeakValueMap();
+
+    // Only guards opening and closing the store - the map itself is safe to access from multiple threads
+    private final Object lock = new Object();
+    private volatile PersistentHashMap<String, CachedLightbulbData> store = null;
+    private boolean disposed = false;
+    // Kept up-to-date as entries are added and removed so that it can be displayed without accessing the disk
+    private final AtomicInteger persistedCount = new AtomicInteger(-1);
+    // Home paths whose entry has already had its last used time updated during this session
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    public ApplicationDataService() {
+        ApplicationManager.getApplication()
+                .getMessageBus()
+                .connect(this)
+                .subscribe(ProjectJdkTable.JDK_TABLE_TOPIC, new ProjectJdkTable.Listener() {
+                    @Override
+                    public void jdkRemoved(@NotNull Sdk jdk) {
+                        var homePath = jdk.getHomePath();
+                        if (homePath != null) {
+                            // Called on the EDT within the SDK table's write action, so must not access the disk
+                            ApplicationManager.getApplication().executeOnPooledThread(() -> removeCachedData(homePath));
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (lock) {
+            disposed = true;
+            closeStore();
+        }
+    }
+
+    private LightbulbData intern(String contentHash, LightbulbData data) {
+        var existing = interned.putIfAbsent(new DataKey(data.version(), contentHash), data);
+        return existing != null ? existing : data;
+    }
+
+    private @Nullable PersistentHashMap<String, CachedLightbulbData> store() {
+        var current = store;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (store == null && !disposed) {
+                store = openStore();
+                if (store != null) {
+                    prune(store);
+                }
+            }
+            return store;
+        }
+    }
+
+    private @Nullable PersistentHashMap<String, CachedLightbulbData> openStore() {
+        try {
+            // Previous versions stored all SDKs in a single JSON file
+            Files.deleteIfExists(storeFile.resolveSibling("metaparams-cache.json"));
+            Files.createDirectories(storeFile.getParent());
+            return createStore();
+        } catch (IOException e) {
+            // A corrupted store just means we have to parse everything again
+            LOG.warn("Failed to open persisted Lightbulb configuration cache, it will be recreated", e);
+            IOUtil.deleteAllFilesStartingWith(storeFile);
+            try {
+                return createStore();
+            } catch (IOException ex) {
+                LOG.warn("Failed to recreate persisted Lightbulb configuration cache", ex);
+                return null;
+            }
+        }
+    }
+
+    private PersistentHashMap<String, CachedLightbulbData> createStore() throws IOException {
+        return PersistentMapBuilder.newBuilder(storeFile, EnumeratorStringDescriptor.INSTANCE, EXTERNALIZER)
+                .withVersion(STORE_VERSION)
+                .build();
+    }
+
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+
+        try {
+            store.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close persisted Lightbulb configuration cache", e);
+        }
+        store = null;
+    }
+
+    private void handleStoreError(String message, IOException e) {
+        LOG.warn(message, e);
+        // Discard the store rather than failing every subsequent access - it is recreated when next used
+        synchronized (lock) {
+            closeStore();
+            IOUtil.deleteAllFilesStartingWith(storeFile);
+            persistedCount.set(-1);
+            touched.clear();
+        }
+    }
+
+    /**
+     * Remove the entries for SDKs whose home path no longer exists, followed by the least recently used
+     * entries until no more than {@link #MAX_PERSISTED_SDKS} remain. Every entry is read to find when it
+     * was last used, which is acceptable as the store is bounded and only pruned when it is opened or grows
+     * beyond the limit.
+     */
+    private void prune(PersistentHashMap<String, CachedLightbulbData> cache) {
+        try {
+            var lastUsed = new HashMap<String, Long>();
+            for (var homePath : cache.getAllKeysWithExistingMapping()) {
+                var entry = isMissing(homePath) ? null : cache.get(homePath);
+                if (entry == null) {
+                    cache.remove(homePath);
+                } else {
+                    lastUsed.put(homePath, entry.lastUsed());
+                }
+            }
+
+            var excess = lastUsed.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(Math.max(0, lastUsed.size() - MAX_PERSISTED_SDKS))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            for (var homePath : excess) {
+                cache.remove(homePath);
+            }
+            persistedCount.set(lastUsed.size() - excess.size());
+        } catch (IOException e) {
+            handleStoreError("Failed to prune persisted Lightbulb configuration cache", e);
+        }
+    }
+
+    private static boolean isMissing(String homePath) {
+        // Only local paths can be checked - remote SDKs (e.g. docker://) are only removed by the size limit
+        try {
+            var path = Path.of(homePath);
+            return path.isAbsolute() && !Files.exists(path);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the persisted Lightbulb data for the given SDK, if the files that it was parsed from have not
+     * changed since it was stored.
+     *
+     * @param sdk the SDK to get the data for.
+     * @param paramsFile the SDK's current {@code metaparams.json} file.
+     * @param initFile the SDK's current Lightbulb {@code __init__.py} file.
+     * @return the persisted data, or {@code null} if there was no valid entry.
+     */
+    public @Nullable LightbulbData getCachedData(
+            @NotNull Sdk sdk, @NotNull VirtualFile paramsFile, @NotNull VirtualFile initFile) {
+        var homePath = sdk.getHomePath();
+        var cache = homePath == null ? null : store();
+        if (cache == null) {
+            return null;
+        }
+
+        var metrics = PluginMetrics.getInstance();
+        metrics.recordLookup(PluginMetrics.Cache.PERSISTED_DATA);
+
+        CachedLightbulbData entry;
+        try {
+            entry = cache.get(homePath);
+        } catch (IOException e) {
+            handleStoreError("Failed to read persisted Lightbulb configuration", e);
+            entry = null;
+        }
+
+        if (entry == null
+                || entry.metaparamsStamp() != paramsFile.getTimeStamp()
+                || entry.metaparamsLength() != paramsFile.getLength()
+                || entry.initStamp() != initFile.getTimeStamp()) {
+            metrics.recordMiss(PluginMetrics.Cache.PERSISTED_DATA);
+            return null;
+        }
+
+        if (touched.add(homePath)) {
+            // Only record the entry's use once per session, rather than writing it on every lookup
+            var used = new CachedLightbulbData(
+                    entry.version(),
+                    entry.metaparamsStamp(),
+                    entry.metaparamsLength(),
+                    entry.initStamp(),
+                    entry.contentHash(),
+                    entry.paramData(),
+                    System.currentTimeMillis());
+            write(cache, homePath, used);
+        }
+
+        // Only build the data (compiling every command model) if no identical installation is loaded already
+        var data = interned.get(new DataKey(entry.version(), entry.contentHash()));
+        return data != null ? data : intern(entry.contentHash(), new LightbulbData(entry.version(), entry.paramData()));
+    }
+
+    LightbulbData readMetaparamsFile(String version, byte[] content, List<String> problems) throws IOException {
+        return new LightbulbData(version, MetaparamsParser.parse(content, problems));
+    }
+
+    /**
+     * Load the Lightbulb data for the given SDK. The persisted data is used if it is still up-to-date,
+     * otherwise the files are read and the data is shared with any other SDK with an identical
+     * installation. The configuration file is only parsed if no such installation has been loaded, unless
+     * {@code force} is set.
+     *
+     * @param sdk the SDK to load the data for.
+     * @param paramsFile the SDK's {@code metaparams.json} file.
+     * @param initFile the SDK's Lightbulb {@code __init__.py} file.
+     * @param problems the list to add a description of each malformed configuration entry to.
+     * @param force whether to always parse the configuration file, ignoring the persisted and shared data.
+     * @return the loaded data, or {@code null} if the installed Lightbulb version could not be determined.
+     * @throws IOException if either of the files could not be read or parsed.
+     */
+    public @Nullable LightbulbData loadData(
+            @NotNull Sdk sdk,
+            @NotNull VirtualFile paramsFile,
+            @NotNull VirtualFile initFile,
+            @NotNull List<String> problems,
+            boolean force)
+            throws IOException {
+        var persisted = force ? null : getCachedData(sdk, paramsFile, initFile);
+        if (persisted != null) {
+            return persisted;
+        }
+
+        var matcher = VERSION_PATTERN.matcher(new String(initFile.contentsToByteArray(), StandardCharsets.UTF_8));
+        String version = null;
+        while (matcher.find()) {
+            version = matcher.group(1);
+        }
+
+        if (version == null) {
+            return null;
+        }
+
+        var content = paramsFile.contentsToByteArray();
+        var contentHash = DigestUtil.sha256Hex(content);
+
+        LightbulbData data;
+        if (force) {
+            // Replace the shared instance so that all SDKs with the same installation pick up the new data
+            data = readMetaparamsFile(version, content, problems);
+            interned.put(new DataKey(version, contentHash), data);
+        } else {
+            // Only parse the file if no other SDK has an identical installation already loaded
+            var metrics = PluginMetrics.getInstance();
+            metrics.recordLookup(PluginMetrics.Cache.SHARED_DATA);
+            data = interned.get(new DataKey(version, contentHash));
+            if (data == null) {
+                metrics.recordMiss(PluginMetrics.Cache.SHARED_DATA);
+                data = intern(contentHash, readMetaparamsFile(version, content, problems));
+            }
+        }
+
+        putCachedData(sdk, paramsFile, initFile, contentHash, data);
+        return data;
+    }
+
+    /**
+     * Remove the persisted data for the SDK with the given home path, for example because it was removed
+     * from the IDE. Must not be called from the EDT.
+     *
+     * @param homePath the home path of the SDK to remove the data for.
+     */
+    void removeCachedData(@NotNull String homePath) {
+        var cache = store();
+        if (cache == null) {
+            return;
+        }
+
+        try {
+            if (cache.containsMapping(homePath)) {
+                cache.remove(homePath);
+                persistedCount.decrementAndGet();
+            }
+            touched.remove(homePath);
+        } catch (IOException e) {
+            handleStoreError("Failed to remove persisted Lightbulb configuration", e);
+        }
+    }
+
+    /**
+     * Get the number of SDKs whose data is persisted to disk. The disk is not accessed, so this can be
+     * called from the EDT.
+     *
+     * @return the number of persisted entries, or {@code -1} if the persisted data has not been read yet.
+     */
+    public int getPersistedEntryCount() {
+        return persistedCount.get();
+    }
+
+    /**
+     * Get the number of distinct parsed configurations currently held in memory, shared between all
+     * projects.
+     *
+     * @return the number of interned configurations.
+     */
+    public int getInternedDataCount() {
+        return interned.size();
+    }
+
+    /**
+     * Store the freshly parsed Lightbulb data for the given SDK, persisting it to disk.
+     *
+     * @param sdk the SDK the data was loaded for.
+     * @param paramsFile the {@code metaparams.json} file the data was parsed from.
+     * @param initFile the {@code __init__.py} file the version was read from.
+     * @param contentHash the hash of the {@code metaparams.json} file contents.
+     * @param data the parsed data.
+     */
+    void putCachedData(
+            @NotNull Sdk sdk,
+            @NotNull VirtualFile paramsFile,
+            @NotNull VirtualFile initFile,
+            @NotNull String contentHash,
+            @NotNull LightbulbData data) {
+        var homePath = sdk.getHomePath();
+        var cache = homePath == null ? null : store();
+        if (cache == null) {
+            return;
+        }
+
+        // Only this SDK's entry is written, so loading SDKs in parallel is not serialised on the store
+        var entry = new CachedLightbulbData(
+                data.version(),
+                paramsFile.getTimeStamp(),
+                paramsFile.getLength(),
+                initFile.getTimeStamp(),
+                contentHash,
+                data.paramData(),
+                System.currentTimeMillis());
+        touched.add(homePath);
+        if (write(cache, homePath, entry) && persistedCount.incrementAndGet() > MAX_PERSISTED_SDKS) {
+            prune(cache);
+        }
+    }
+
+    /**
+     * Write the given entry to the store.
+     *
+     * @return whether the entry was added, rather than replacing an existing entry.
+     */
+    private boolean write(
+            PersistentHashMap<String, CachedLightbulbData> cache, String homePath, CachedLightbulbData entry) {
+        try {
+            var added = !cache.containsMapping(homePath);
+            cache.put(homePath, entry);
+            return added;
+        } catch (IOException e) {
+            handleStoreError("Failed to persist Lightbulb configuration", e);
+            return false;
+        }
+    }
+
+    private static void writeParams(DataOutput out, Map<String, String> params) throws IOException {
+        DataInputOutputUtil.writeINT(out, params.size());
+        for (var param : params.entrySet()) {
+            IOUtil.writeUTF(out, param.getKey());
+            IOUtil.writeUTF(out, param.getValue());
+        }
+    }
+
+    private static Map<String, String> readParams(DataInput in, Map<String, String> interned) throws IOException {
+        var size = DataInputOutputUtil.readINT(in);
+        var params = new LinkedHashMap<String, String>(size);
+        for (var i = 0; i < size; i++) {
+            var name = IOUtil.readUTF(in);
+            var type = IOUtil.readUTF(in);
+            params.put(interned.computeIfAbsent(name, k -> k), interned.computeIfAbsent(type, k -> k));
+        }
+        return Collections.unmodifiableMap(params);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.jetbrains.python.inspections.PyInspection;
+import com.jetbrains.python.inspections.PyInspectionVisitor;
+import com.jetbrains.python.psi.PyArgumentList;
+import com.jetbrains.python.psi.PyCallExpression;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyExpression;
+import com.jetbrains.python.psi.PyQualifiedExpression;
+import com.jetbrains.python.psi.PyStringLiteralExpression;
+import com.jetbrains.python.psi.types.PyClassType;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
+import io.github.tandemdude.hklbsupport.index.CommandClassIndex;
+import io.github.tandemdude.hklbsupport.utils.Utils;
+import java.util.Objects;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Local inspection provider reporting Lightbulb commands that use the same name as another command of the
+ * same type within the module. Discord rejects such commands when they are synced.<br>
+ * <br>
+ * Classes registered to a command group are not checked, as their names only need to be unique within the group.
+ * Both decorator ({@code @group.register}) and call ({@code group.register(Command)}) registrations within the
+ * module are recognised - registrations made elsewhere, or through another name for the group's
+ * {@code register} method, are not.
+ */
+public class CommandDuplicateNameInspector extends PyInspection {
+    // The classes providing the register method - subclasses are also recognised
+    private static final Set<String> GROUP_CLASSES =
+            Set.of("lightbulb.commands.groups.Group", "lightbulb.commands.groups.SubGroup");
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(
+            @NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
+        return new Visitor(holder, PyInspectionVisitor.getContext(session));
+    }
+
+    static final class Visitor extends PyInspectionVisitor {
+        Visitor(@NotNull ProblemsHolder holder, @NotNull TypeEvalContext context) {
+            super(holder, context);
+        }
+
+        @Override
+        public void visitPyClass(@NotNull PyClass node) {
+            PluginMetrics.getInstance().run(PluginMetrics.Timer.DUPLICATE_NAMES_INSPECTION, () -> {
+                var nameExpr = Utils.getKeywordSuperclassExpressions(node).get("name");
+                if (!(nameExpr instanceof PyStringLiteralExpression name)) {
+                    return;
+                }
+
+                var module = ModuleUtilCore.findModuleForPsiElement(node);
+                if (module == null) {
+                    return;
+                }
+
+                var resolved = Utils.resolveCommand(node);
+                if (resolved == null) {
+                    return;
+                }
+
+                var superclassName = resolved.superclass().getQualifiedName();
+                var scope = GlobalSearchScope.moduleScope(module);
+                var others = CommandClassIndex.findClassesWithName(node.getProject(), name.getStringValue(), scope);
+                for (var other : others) {
+                    if (other == node) {
+                        continue;
+                    }
+
+                    var otherResolved = Utils.resolveCommand(other);
+                    if (otherResolved == null
+                            || !Objects.equals(otherResolved.superclass().getQualifiedName(), superclassName)) {
+                        continue;
+                    }
+
+                    // The other class may be in a different file, so needs its own context
+                    var otherContext = TypeEvalContext.codeAnalysis(other.getProject(), other.getContainingFile());
+                    if (isGroupMember(other, otherContext, scope)) {
+                        continue;
+                    }
+
+                    if (isGroupMember(node, myTypeEvalContext, scope)) {
+                        return;
+                    }
+
+                    registerProblem(
+                            name,
+                            "Command name '" + name.getStringValue() + "' is already used by '" + other.getName()
+                                    + "'",
+                            ProblemHighlightType.WARNING);
+                    return;
+                }
+            });
+        }
+
+        /**
+         * Check whether the given class is registered to a command group, either using a decorator, for example
+         * {@code @group.register}, or by passing the class to the group's {@code register} method. Registration
+         * calls are only searched for once a class with a duplicate name has been found, as this requires
+         * searching for references to the class.
+         *
+         * @param cls the class to check.
+         * @param context the type evaluation context for the file containing the class.
+         * @param scope the scope to search for registration calls within.
+         */
+        private static boolean isGroupMember(
+                @NotNull PyClass cls, @NotNull TypeEvalContext context, @NotNull GlobalSearchScope scope) {
+            var decorators = cls.getDecoratorList();
+            if (decorators != null) {
+                for (var decorator : decorators.getDecorators()) {
+                    var callee = decorator.getCallee();
+                    if (callee instanceof PyCallExpression call) {
+                        callee = call.getCallee();
+                    }
+                    if (isGroupRegister(callee, context)) {
+                        return true;
+                    }
+                }
+            }
+
+            // Returns false if the search was stopped by finding a registration call
+            return !ReferencesSearch.search(cls, scope).forEach(reference -> {
+                var element = reference.getElement();
+                if (!(element.getParent() instanceof PyArgumentList args)
+                        || !(args.getParent() instanceof PyCallExpression call)) {
+                    return true;
+                }
+
+                var callContext = TypeEvalContext.codeAnalysis(element.getProject(), element.getContainingFile());
+                return !isGroupRegister(call.getCallee(), callContext);
+            });
+        }
+
+        /**
+         * Check whether the given expression refers to the {@code register} method of a Lightbulb command group.
+         *
+         * @param callee the expression to check.
+         * @param context the type evaluation context for the file containing the expression.
+         */
+        private static boolean isGroupRegister(@Nullable PyExpression callee, @NotNull TypeEvalContext context) {
+            if (!(callee instanceof PyQualifiedExpression qualified)
+                    || !"register".equals(qualified.getReferencedName())
+                    || qualified.getQualifier() == null
+                    || !(context.getType(qualified.getQualifier()) instanceof PyClassType type)) {
+                return false;
+            }
+
+            var groupClass = type.getPyClass();
+            if (GROUP_CLASSES.contains(groupClass.getQualifiedName())) {
+                return true;
+            }
+            for (var ancestor : groupClass.getAncestorClasses(context)) {
+                if (GROUP_CLASSES.contains(ancestor.getQualifiedName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
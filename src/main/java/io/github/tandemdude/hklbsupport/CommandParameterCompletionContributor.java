@@ -27,9 +27,7 @@ import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
-import com.intellij.codeInsight.lookup.LookupElement;
-import com.intellij.codeInsight.lookup.LookupElementBuilder;
-import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.codeInsight.completion.CompletionUtil;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
@@ -38,10 +36,8 @@ import com.jetbrains.python.codeInsight.completion.PyMetaClassCompletionContribu
 import com.jetbrains.python.psi.PyArgumentList;
 import com.jetbrains.python.psi.PyClass;
 import com.jetbrains.python.psi.PyReferenceExpression;
-import com.jetbrains.python.psi.types.TypeEvalContext;
-import com.jetbrains.python.sdk.PythonSdkUtil;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
 import io.github.tandemdude.hklbsupport.utils.Utils;
-import java.util.ArrayList;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -54,56 +50,33 @@ public class CommandParameterCompletionContributor extends CompletionContributor
                 @NotNull CompletionParameters parameters,
                 @NotNull ProcessingContext context,
                 @NotNull CompletionResultSet result) {
-            var module = ModuleUtilCore.findModuleForFile(parameters.getOriginalFile());
-            if (module == null) {
-                // We cannot suggest parameters if we don't know the module (and therefore the SDK)
-                // that the file belongs to
-                return;
-            }
+            PluginMetrics.getInstance().run(PluginMetrics.Timer.COMPLETION, () -> {
+                var cls = PsiTreeUtil.getParentOfType(parameters.getPosition(), PyClass.class);
+                if (cls == null) {
+                    // This shouldn't happen given we specified in our expression only to suggest parameters
+                    // within a class definition - but we don't want to error the user's IDE just in case.
+                    return;
+                }
 
-            var sdk = PythonSdkUtil.findPythonSdk(module);
-            if (sdk == null) {
-                return;
-            }
+                // Resolve using the class from the original file so that the cached result can be reused
+                // between invocations - the completion file is a fresh copy each time.
+                var resolved = Utils.resolveCommand(CompletionUtil.getOriginalOrSelf(cls));
+                if (resolved == null) {
+                    // The current class does not inherit from one of lightbulb's command classes, so we have
+                    // nothing to autocomplete. Alternatively, we don't have the data for the module - lightbulb
+                    // may not be installed, a filesystem listener will load the data when it becomes available.
+                    return;
+                }
 
-            var dataService = parameters.getOriginalFile().getProject().getService(ProjectDataService.class);
-            var moduleLightbulbData = dataService.getLightbulbData(sdk);
-            if (moduleLightbulbData == null) {
-                // We don't have the data for the specified module - maybe it isn't part of this project?
-                // Alternatively, lightbulb may not be installed - a filesystem listener will load the
-                // data when it becomes available.
-                return;
-            }
-
-            var cls = PsiTreeUtil.getParentOfType(parameters.getPosition(), PyClass.class);
-            if (cls == null) {
-                // This shouldn't happen given we specified in our expression only to suggest parameters
-                // within a class definition - but we don't want to error the user's IDE just in case.
-                return;
-            }
-
-            var evalContext = TypeEvalContext.codeCompletion(cls.getProject(), parameters.getOriginalFile());
-            var commandSuperClass = Utils.getLightbulbSuperclass(evalContext, cls, moduleLightbulbData);
-            if (commandSuperClass == null) {
-                // The current class does not inherit from one of lightbulb's command classes, so we have
-                // nothing to autocomplete.
-                return;
-            }
-
-            var existingParameters = Utils.getKeywordSuperclassExpressions(cls);
-
-            var completionElements = new ArrayList<LookupElement>();
-            var paramData = moduleLightbulbData.paramData().get(commandSuperClass.getQualifiedName());
-            paramData.required().entrySet().stream()
-                    .filter(entry -> !existingParameters.containsKey(entry.getKey()))
-                    .forEach(entry -> completionElements.add(
-                            LookupElementBuilder.create(entry.getKey() + "=").withTypeText(entry.getValue())));
-            paramData.optional().entrySet().stream()
-                    .filter(entry -> !existingParameters.containsKey(entry.getKey()))
-                    .forEach(entry -> completionElements.add(
-                            LookupElementBuilder.create(entry.getKey() + "=").withTypeText(entry.getValue())));
-
-            result.addAllElements(completionElements);
+                // The lookup elements are precomputed - only the parameters that have already been passed
+                // need to be filtered out for each invocation.
+                var existingParameters = Utils.getKeywordSuperclassExpressions(cls);
+                for (var param : resolved.command().parameters()) {
+                    if (!existingParameters.containsKey(param.name())) {
+                        result.addElement(param.lookupElement());
+                    }
+                }
+            });
         }
     }
 
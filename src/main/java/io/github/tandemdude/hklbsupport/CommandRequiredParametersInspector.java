@@ -30,7 +30,8 @@ import com.jetbrains.python.inspections.PyInspection;
 import com.jetbrains.python.inspections.PyInspectionVisitor;
 import com.jetbrains.python.psi.PyClass;
 import com.jetbrains.python.psi.types.TypeEvalContext;
-import io.github.tandemdude.hklbsupport.utils.Utils;
+import io.github.tandemdude.hklbsupport.analysis.CommandAnalyzer;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -53,25 +54,16 @@ public class CommandRequiredParametersInspector extends PyInspection {
 
         @Override
         public void visitPyClass(@NotNull PyClass node) {
-            var lbData = Utils.getLightbulbDataForNode(node);
-            if (lbData == null) {
-                return;
-            }
-
-            var lbSuperclass = Utils.getLightbulbSuperclass(myTypeEvalContext, node, lbData);
-            if (lbSuperclass == null) {
-                return;
-            }
-
-            var existingParameters = Utils.getKeywordSuperclassExpressions(node);
-            var requiredParams =
-                    lbData.paramData().get(lbSuperclass.getQualifiedName()).required();
+            PluginMetrics.getInstance().run(PluginMetrics.Timer.REQUIRED_PARAMETERS_INSPECTION, () -> {
+                var analysis = CommandAnalyzer.analyze(node);
+                if (analysis == null) {
+                    return;
+                }
 
-            requiredParams.forEach((name, type) -> {
-                if (!existingParameters.containsKey(name)) {
+                for (var param : analysis.missingParameters()) {
                     registerProblem(
                             node.getSuperClassExpressionList(),
-                            "Command missing required parameter '" + name + "'",
+                            "Command missing required parameter '" + param.name() + "'",
                             ProblemHighlightType.GENERIC_ERROR);
                 }
             });
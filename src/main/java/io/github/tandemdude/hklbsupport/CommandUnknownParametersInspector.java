@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElementVisitor;
+import com.jetbrains.python.inspections.PyInspection;
+import com.jetbrains.python.inspections.PyInspectionVisitor;
+import com.jetbrains.python.psi.LanguageLevel;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyElementGenerator;
+import com.jetbrains.python.psi.PyKeywordArgument;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import io.github.tandemdude.hklbsupport.analysis.CommandAnalyzer;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Local inspection provider reporting keyword arguments passed to Lightbulb command classes that are not
+ * parameters of the command class. The closest matching parameter names are offered as quick-fixes.
+ */
+public class CommandUnknownParametersInspector extends PyInspection {
+    private static final int MAX_SUGGESTIONS = 3;
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(
+            @NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
+        return new Visitor(holder, PyInspectionVisitor.getContext(session));
+    }
+
+    static final class Visitor extends PyInspectionVisitor {
+        Visitor(@NotNull ProblemsHolder holder, @NotNull TypeEvalContext context) {
+            super(holder, context);
+        }
+
+        @Override
+        public void visitPyClass(@NotNull PyClass node) {
+            PluginMetrics.getInstance().run(PluginMetrics.Timer.UNKNOWN_PARAMETERS_INSPECTION, () -> {
+                var analysis = CommandAnalyzer.analyze(node);
+                if (analysis == null) {
+                    return;
+                }
+
+                var command = analysis.command().command();
+                for (var kwarg : analysis.unknownKeywords()) {
+                    var suggestions = command.suggestParameterNames(kwarg.getKeyword(), MAX_SUGGESTIONS);
+
+                    var message = "Unknown command parameter '" + kwarg.getKeyword() + "'";
+                    if (!suggestions.isEmpty()) {
+                        message += ", did you mean '" + suggestions.get(0) + "'?";
+                    }
+
+                    registerProblem(
+                            kwarg,
+                            message,
+                            ProblemHighlightType.WARNING,
+                            null,
+                            suggestions.stream().map(RenameParameterFix::new).toArray(LocalQuickFix[]::new));
+                }
+            });
+        }
+    }
+
+    /**
+     * Quick-fix replacing the keyword of an unknown command parameter with the given parameter name.
+     */
+    static final class RenameParameterFix implements LocalQuickFix {
+        private final String name;
+
+        RenameParameterFix(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return "Rename to '" + name + "'";
+        }
+
+        @Override
+        public @NotNull String getFamilyName() {
+            return "Rename command parameter";
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            if (!(descriptor.getPsiElement() instanceof PyKeywordArgument kwarg)
+                    || kwarg.getValueExpression() == null) {
+                return;
+            }
+
+            var replacement = PyElementGenerator.getInstance(project)
+                    .createKeywordArgument(LanguageLevel.forElement(kwarg), name, kwarg.getValueExpression().getText());
+            kwarg.replace(replacement);
+        }
+    }
+}
@@ -22,104 +22,478 @@
 
 package io.github.tandemdude.hklbsupport;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.components.Service;
-import com.intellij.openapi.fileTypes.FileTypeManager;
 import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
 import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.util.LowMemoryWatcher;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.search.FileTypeIndex;
-import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
 import com.jetbrains.python.sdk.PythonSdkUtil;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
 import io.github.tandemdude.hklbsupport.models.LightbulbData;
-import io.github.tandemdude.hklbsupport.models.ParamData;
 import io.github.tandemdude.hklbsupport.utils.Notifier;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 @Service(Service.Level.PROJECT)
-public final class ProjectDataService {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-    private static final Pattern VERSION_PATTERN = Pattern.compile("__version__\\s*=\\s*\"([^\"]+)\"");
+public final class ProjectDataService implements Disposable {
+    private static final String METAPARAMS_PATH = "lightbulb/metaparams.json";
+    // Data for SDKs not used by any module is discarded once more than this many SDKs have been loaded. This
+    // is not a hard cap - the data for SDKs used by the project's modules is always kept, as it would only be
+    // requested and loaded again straight away.
+    public static final int MAX_CACHED_SDKS = 8;
 
     private final Project project;
 
-    private final ConcurrentHashMap<Sdk, LightbulbData> sdkCache = new ConcurrentHashMap<>();
+    // All SDKs are identified by their key (see getSdkKey) so that no references to the SDKs themselves are
+    // retained once they are removed from the IDE
+    private final ConcurrentHashMap<String, LightbulbData> sdkCache = new ConcurrentHashMap<>();
+    private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
+    // Paths of the files that the data for each SDK was loaded from - multiple SDKs can share a single
+    // installation (e.g. through system site-packages) so each path may map to more than one SDK
+    private final ConcurrentHashMap<String, Set<String>> watchedFiles = new ConcurrentHashMap<>();
+    // SDKs whose data has been requested on demand - they are only loaded again once their packages change, so
+    // that SDKs without Lightbulb installed are not checked repeatedly
+    private final Set<String> requestedSdks = ConcurrentHashMap.newKeySet();
+    // SDKs that are queued to be loaded but that the loading task has not yet started processing
+    private final Set<String> pendingSdks = ConcurrentHashMap.newKeySet();
+    // Package changes tend to arrive in bursts (e.g. 'poetry install') - wait for them to settle before
+    // checking whether a reload is required
+    private final MergingUpdateQueue packageChangeQueue = new MergingUpdateQueue(
+            "Lightbulb package changes", 1000, true, null, this, null, Alarm.ThreadToUse.POOLED_THREAD);
 
     public ProjectDataService(Project project) {
         this.project = project;
+        this.packageChangeQueue.setRestartTimerOnAdd(true);
+
+        ApplicationManager.getApplication()
+                .getMessageBus()
+                .connect(this)
+                .subscribe(ProjectJdkTable.JDK_TABLE_TOPIC, new ProjectJdkTable.Listener() {
+                    @Override
+                    public void jdkRemoved(@NotNull Sdk jdk) {
+                        evict(jdk);
+                    }
+                });
+        // The data for any SDK still in use can be quickly reloaded from the persisted cache if needed
+        LowMemoryWatcher.register(this::evictUnused, this);
+    }
+
+    /**
+     * Get the key identifying the given SDK within the cache. The home path is used where available, so
+     * that the key stays the same if the SDK is renamed or its configuration is reloaded.
+     *
+     * @param sdk the SDK to get the key for.
+     * @return the key for the SDK.
+     */
+    static String getSdkKey(Sdk sdk) {
+        return sdk.getHomePath() != null ? sdk.getHomePath() : sdk.getName();
+    }
+
+    /**
+     * Find the SDK with the given key within the IDE's SDK table.
+     *
+     * @param key the key of the SDK to find.
+     * @return the SDK, or {@code null} if it no longer exists.
+     */
+    private static @Nullable Sdk findSdk(String key) {
+        return ReadAction.compute(() -> {
+            for (var sdk : ProjectJdkTable.getInstance().getAllJdks()) {
+                if (getSdkKey(sdk).equals(key)) {
+                    return sdk;
+                }
+            }
+            return null;
+        });
+    }
+
+    private Set<String> getModuleSdkKeys() {
+        return ReadAction.compute(() -> {
+            var keys = new HashSet<String>();
+            for (var module : ModuleManager.getInstance(project).getModules()) {
+                var sdk = PythonSdkUtil.findPythonSdk(module);
+                if (sdk != null) {
+                    keys.add(getSdkKey(sdk));
+                }
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * Discard all data held for the given SDK, for example because it was removed from the IDE.
+     *
+     * @param sdk the SDK to discard the data for.
+     */
+    void evict(Sdk sdk) {
+        var key = getSdkKey(sdk);
+        requestedSdks.remove(key);
+        unwatchFiles(key::equals);
+        if (sdkCache.remove(key) != null) {
+            modificationTracker.incModificationCount();
+        }
+    }
+
+    /**
+     * Discard the data held for all SDKs that are not used by any module within the project.
+     */
+    public void evictUnused() {
+        var inUse = getModuleSdkKeys();
+        if (sdkCache.keySet().removeIf(key -> !inUse.contains(key))) {
+            modificationTracker.incModificationCount();
+        }
+        requestedSdks.removeIf(key -> !inUse.contains(key));
+        unwatchFiles(key -> !inUse.contains(key));
     }
 
+    @Override
+    public void dispose() {}
+
+    /**
+     * Populate the cache with the persisted data of each module's SDK, if the SDK's Lightbulb installation
+     * has not changed since it was last parsed. No files are parsed - the data for any other SDK is loaded
+     * in the background the first time it is requested.
+     */
     public void loadModules() {
         Arrays.stream(ModuleManager.getInstance(project).getModules()).forEach(module -> {
             var maybeSdk = PythonSdkUtil.findPythonSdk(module);
-            if (maybeSdk != null) {
-                sdkCache.put(maybeSdk, new LightbulbData("-1", Collections.emptyMap()));
+            if (maybeSdk == null) {
+                return;
+            }
+
+            var paramsFile = findMetaparamsFile(maybeSdk);
+            var initFile = paramsFile == null ? null : paramsFile.getParent().findChild("__init__.py");
+            var persisted = initFile == null
+                    ? null
+                    : ApplicationManager.getApplication()
+                            .getService(ApplicationDataService.class)
+                            .getCachedData(maybeSdk, paramsFile, initFile);
+            if (persisted != null) {
+                sdkCache.put(getSdkKey(maybeSdk), persisted);
+                watchFiles(maybeSdk, paramsFile, initFile);
             }
         });
+        modificationTracker.incModificationCount();
     }
 
-    public void flush() {
-        this.sdkCache.clear();
+    /**
+     * Load the data for each module's SDK that does not have any data loaded yet, on the current thread.
+     * Used where the data is required immediately rather than being loaded in the background on demand,
+     * for example before auditing the whole project. Must not be called from the EDT.
+     */
+    public void loadMissingModuleSdks() {
+        var sdks = ReadAction.compute(() -> {
+            var found = new LinkedHashSet<Sdk>();
+            for (var module : ModuleManager.getInstance(project).getModules()) {
+                var sdk = PythonSdkUtil.findPythonSdk(module);
+                if (sdk != null && !sdkCache.containsKey(getSdkKey(sdk))) {
+                    found.add(sdk);
+                }
+            }
+            return found;
+        });
+        sdks.forEach(sdk -> notifyChange(sdk, false));
     }
 
-    public LightbulbData getLightbulbData(Sdk sdk) {
-        return sdkCache.get(sdk);
+    /**
+     * Get the modification tracker for this service. The modification count is incremented whenever
+     * the Lightbulb data available for any SDK changes, so can be used as a dependency for values
+     * computed from the data.
+     *
+     * @return the modification tracker.
+     */
+    public ModificationTracker getModificationTracker() {
+        return modificationTracker;
     }
 
-    LightbulbData readMetaparamsFile(String version, VirtualFile vf) throws IOException {
-        var parsedParamData = MAPPER.readValue(vf.getInputStream(), new TypeReference<Map<String, ParamData>>() {});
-        return new LightbulbData(version, parsedParamData);
+    /**
+     * Get the Lightbulb data loaded for the given SDK. If no data has been loaded, a background load is
+     * scheduled the first time it is requested - once it completes, the modification tracker is incremented
+     * and the project's files are re-analysed.
+     *
+     * @param sdk the SDK to get the data for.
+     * @return the loaded data, or {@code null} if it is not available yet or Lightbulb is not installed.
+     */
+    public @Nullable LightbulbData getLightbulbData(Sdk sdk) {
+        var key = getSdkKey(sdk);
+        var data = sdkCache.get(key);
+        if (data == null && requestedSdks.add(key)) {
+            scheduleReload(List.of(sdk), false);
+        }
+        return data;
+    }
+
+    /**
+     * Get a view of all Lightbulb data currently loaded for this project.
+     *
+     * @return the loaded data, keyed by SDK home path (or name, if the SDK has no home path).
+     */
+    public Map<String, LightbulbData> getLoadedData() {
+        return Collections.unmodifiableMap(sdkCache);
     }
 
-    boolean populateCacheForSdk(Sdk sdk, VirtualFile paramsFile) {
-        if (!paramsFile.getName().equals("metaparams.json")
-                || !paramsFile.getParent().getName().equals("lightbulb")) {
-            return true;
+    /**
+     * Find the {@code metaparams.json} file of the Lightbulb installation available to the given SDK.
+     * Only the SDK's own library roots are checked, so the cost does not depend on the number of
+     * JSON files that exist within the project.
+     *
+     * @param sdk the SDK to find the Lightbulb installation for.
+     * @return the {@code metaparams.json} file, or {@code null} if Lightbulb is not installed.
+     */
+    static @Nullable VirtualFile findMetaparamsFile(@NotNull Sdk sdk) {
+        for (var root : sdk.getRootProvider().getFiles(OrderRootType.CLASSES)) {
+            var paramsFile = root.findFileByRelativePath(METAPARAMS_PATH);
+            if (paramsFile != null && !paramsFile.isDirectory()) {
+                return paramsFile;
+            }
         }
+        return null;
+    }
+
+    boolean populateCacheForSdk(Sdk sdk, VirtualFile paramsFile, boolean force) throws IOException {
+        return PluginMetrics.getInstance()
+                .compute(PluginMetrics.Timer.CACHE_POPULATE, () -> doPopulateCacheForSdk(sdk, paramsFile, force));
+    }
 
+    private boolean doPopulateCacheForSdk(Sdk sdk, VirtualFile paramsFile, boolean force) throws IOException {
         var initFile = paramsFile.getParent().findChild("__init__.py");
         if (initFile == null) {
-            return true;
+            return false;
+        }
+
+        var problems = new ArrayList<String>();
+        var data = ApplicationManager.getApplication()
+                .getService(ApplicationDataService.class)
+                .loadData(sdk, paramsFile, initFile, problems, force);
+        if (!problems.isEmpty()) {
+            Notifier.notifyWarning(
+                    project,
+                    "Ignored %d malformed Lightbulb configuration entries (%s): %s",
+                    problems.size(),
+                    sdk.getName(),
+                    String.join(", ", problems));
+        }
+
+        if (data == null) {
+            return false;
         }
 
-        try {
-            var matcher = VERSION_PATTERN.matcher(new String(initFile.contentsToByteArray()));
-            String version = null;
-            while (matcher.find()) {
-                version = matcher.group(1);
+        watchFiles(sdk, paramsFile, initFile);
+
+        // Loaded data is shared between projects, so an unchanged installation returns the same instance. Any
+        // previous data is replaced in a single step, so it remains available until the new data is ready.
+        var previous = sdkCache.put(getSdkKey(sdk), data);
+        if (sdkCache.size() > MAX_CACHED_SDKS) {
+            evictUnused();
+        }
+        if (previous != data) {
+            modificationTracker.incModificationCount();
+            // Completions pick up the new data immediately, but highlighting must be restarted
+            ApplicationManager.getApplication()
+                    .invokeLater(() -> DaemonCodeAnalyzer.getInstance(project).restart(), project.getDisposed());
+            Notifier.notifyInformation(project, "Lightbulb configuration loaded successfully (%s)", sdk.getName());
+        }
+        return true;
+    }
+
+    /**
+     * Record the files that the data for the given SDK was loaded from, replacing any files that it was
+     * previously loaded from.
+     *
+     * @param sdk the SDK the data was loaded for.
+     * @param files the files the data was loaded from.
+     */
+    private void watchFiles(Sdk sdk, VirtualFile... files) {
+        var key = getSdkKey(sdk);
+        unwatchFiles(key::equals);
+        for (var file : files) {
+            watchedFiles.compute(file.getPath(), (k, sdks) -> {
+                var updated = sdks != null ? sdks : ConcurrentHashMap.<String>newKeySet();
+                updated.add(key);
+                return updated;
+            });
+        }
+    }
+
+    private void unwatchFiles(Predicate<String> predicate) {
+        for (var path : watchedFiles.keySet()) {
+            watchedFiles.computeIfPresent(path, (k, sdks) -> {
+                sdks.removeIf(predicate);
+                return sdks.isEmpty() ? null : sdks;
+            });
+        }
+    }
+
+    /**
+     * Check whether the data loaded for the given SDK is still up-to-date with the installed
+     * Lightbulb package. The package's files are refreshed first so that changes made outside
+     * the IDE are taken into account.
+     *
+     * @param sdk the SDK to check.
+     * @return {@code true} if the loaded data is up-to-date, otherwise {@code false}.
+     */
+    boolean isUpToDate(Sdk sdk) {
+        var current = sdkCache.get(getSdkKey(sdk));
+        if (current == null) {
+            return false;
+        }
+
+        var paramsFile = ReadAction.compute(() -> findMetaparamsFile(sdk));
+        var initFile = paramsFile == null ? null : paramsFile.getParent().findChild("__init__.py");
+        if (initFile == null) {
+            return false;
+        }
+
+        VfsUtil.markDirtyAndRefresh(false, false, false, paramsFile, initFile);
+        // Loaded data is interned, so the persisted entry is the same instance if nothing has changed
+        return ApplicationManager.getApplication()
+                        .getService(ApplicationDataService.class)
+                        .getCachedData(sdk, paramsFile, initFile)
+                == current;
+    }
+
+    /**
+     * Notify the service that the packages installed in the given SDK have changed. Changes are
+     * merged per SDK until no more have been received for a short time, and the data is only
+     * reloaded if the Lightbulb package's files were modified.
+     *
+     * @param sdk the SDK whose packages changed.
+     */
+    public void notifyPackagesChanged(Sdk sdk) {
+        packageChangeQueue.queue(Update.create(sdk, () -> {
+            if (!isUpToDate(sdk)) {
+                scheduleReload(List.of(sdk), false);
             }
+        }));
+    }
 
-            if (version == null) {
-                return true;
+    /**
+     * Notify the service that the files at the given paths have changed. Only the SDKs whose data was
+     * loaded from one of the files are reloaded.
+     *
+     * @param paths the paths of the changed files.
+     */
+    public void notifyFilesChanged(Collection<String> paths) {
+        var changedKeys = new LinkedHashSet<String>();
+        for (var path : paths) {
+            var keys = watchedFiles.get(path);
+            if (keys != null) {
+                changedKeys.addAll(keys);
             }
+        }
 
-            if (sdkCache.get(sdk) != null && version.equals(sdkCache.get(sdk).version())) {
-                return false;
+        var changed = new ArrayList<Sdk>();
+        for (var key : changedKeys) {
+            var sdk = findSdk(key);
+            if (sdk != null) {
+                changed.add(sdk);
             }
+        }
 
-            var data = readMetaparamsFile(version, paramsFile);
-            sdkCache.put(sdk, data);
-            Notifier.notifyInformation(project, "Lightbulb configuration loaded successfully (%s)", sdk.getName());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (!changed.isEmpty()) {
+            scheduleReload(changed, false);
         }
-        return false;
     }
 
+    /**
+     * Reload the Lightbulb data for the given SDK on the current thread. The data loaded previously is kept
+     * if the reload fails.
+     *
+     * @param sdk the SDK to reload the data for.
+     * @param triggeredByAction whether the reload was requested explicitly by the user. If so, the
+     *     configuration is always parsed again, even if the installation appears to be unchanged.
+     */
     public void notifyChange(Sdk sdk, boolean triggeredByAction) {
-        var noneFound = FileTypeIndex.processFiles(
-                FileTypeManager.getInstance().getFileTypeByExtension("json"),
-                file -> populateCacheForSdk(sdk, file),
-                GlobalSearchScope.allScope(project));
-        if (noneFound && triggeredByAction) {
-            Notifier.notifyWarning(project, "Failed to load Lightbulb configuration");
+        PluginMetrics.getInstance().run(PluginMetrics.Timer.CACHE_RELOAD, () -> {
+            var paramsFile = ReadAction.compute(() -> findMetaparamsFile(sdk));
+            try {
+                var loaded = paramsFile != null && populateCacheForSdk(sdk, paramsFile, triggeredByAction);
+                if (!loaded && triggeredByAction) {
+                    Notifier.notifyWarning(project, "Failed to load Lightbulb configuration");
+                }
+            } catch (IOException e) {
+                Notifier.notifyWarning(
+                        project, "Failed to load Lightbulb configuration (%s): %s", sdk.getName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Schedule the Lightbulb data for the given SDKs to be reloaded in parallel by a cancellable background
+     * task. SDKs that are already queued to be loaded are skipped, so that duplicate requests made while
+     * waiting for the task to run are merged into a single load.
+     *
+     * @param sdks the SDKs to reload the data for.
+     * @param triggeredByAction whether the reload was requested explicitly by the user.
+     */
+    public void scheduleReload(Collection<Sdk> sdks, boolean triggeredByAction) {
+        var toLoad = new ArrayList<Sdk>();
+        for (var sdk : sdks) {
+            if (pendingSdks.add(getSdkKey(sdk))) {
+                toLoad.add(sdk);
+            }
+        }
+
+        if (toLoad.isEmpty()) {
+            return;
         }
+
+        // SDKs that this task has started loading - only set by the task, then read once it has finished
+        var started = ConcurrentHashMap.<Sdk>newKeySet();
+        new Task.Backgroundable(project, "Loading Lightbulb configuration", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                var completed = new AtomicInteger();
+                JobLauncher.getInstance().invokeConcurrentlyUnderProgress(toLoad, indicator, sdk -> {
+                    // Any request made from now on must cause another load as the files may change after
+                    // we have read them
+                    started.add(sdk);
+                    pendingSdks.remove(getSdkKey(sdk));
+                    notifyChange(sdk, triggeredByAction);
+                    indicator.setFraction((double) completed.incrementAndGet() / toLoad.size());
+                    return true;
+                });
+            }
+
+            @Override
+            public void onFinished() {
+                // Make sure that SDKs skipped due to cancellation can be scheduled again. SDKs that were started
+                // are not removed, as they may have been queued again by a newer task in the meantime.
+                for (var sdk : toLoad) {
+                    if (!started.contains(sdk)) {
+                        pendingSdks.remove(getSdkKey(sdk));
+                    }
+                }
+            }
+        }.queue();
     }
 }
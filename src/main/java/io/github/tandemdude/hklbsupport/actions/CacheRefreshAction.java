@@ -26,8 +26,10 @@ import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.projectRoots.Sdk;
 import com.jetbrains.python.sdk.PythonSdkUtil;
 import io.github.tandemdude.hklbsupport.ProjectDataService;
+import java.util.LinkedHashSet;
 import org.jetbrains.annotations.NotNull;
 
 public class CacheRefreshAction extends AnAction {
@@ -42,16 +44,19 @@ public class CacheRefreshAction extends AnAction {
             return;
         }
 
+        // The existing data is kept until each SDK's data has been reloaded, so that completions and
+        // inspections remain available during the refresh
         var dataService = e.getProject().getService(ProjectDataService.class);
-        dataService.flush();
+        dataService.evictUnused();
 
-        var modules = ModuleManager.getInstance(e.getProject()).getModules();
-        for (var module : modules) {
+        var sdks = new LinkedHashSet<Sdk>();
+        for (var module : ModuleManager.getInstance(e.getProject()).getModules()) {
             var sdk = PythonSdkUtil.findPythonSdk(module);
             if (sdk != null) {
-                dataService.notifyChange(sdk, true);
+                sdks.add(sdk);
             }
         }
+        dataService.scheduleReload(sdks, true);
     }
 
     @Override
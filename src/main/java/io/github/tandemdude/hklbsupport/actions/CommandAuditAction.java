@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.actions;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.testFramework.LightVirtualFile;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.audit.CommandAuditor;
+import io.github.tandemdude.hklbsupport.utils.Notifier;
+import org.jetbrains.annotations.NotNull;
+
+public class CommandAuditAction extends AnAction {
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        var project = e.getProject();
+        if (project == null) {
+            return;
+        }
+
+        new Task.Backgroundable(project, "Auditing Lightbulb commands", true) {
+            private CommandAuditor.Result result;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                // Data is otherwise only loaded once requested by the editor, so command classes inheriting
+                // from an SDK's Lightbulb classes would not be found
+                indicator.setText("Loading Lightbulb configuration");
+                project.getService(ProjectDataService.class).loadMissingModuleSdks();
+                result = CommandAuditor.audit(project, indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                if (result.problems().isEmpty()) {
+                    Notifier.notifyInformation(
+                            project, "No problems found in %d Lightbulb command classes", result.commandCount());
+                    return;
+                }
+
+                var report = new StringBuilder();
+                report.append(String.format(
+                        "Lightbulb command audit: %d problems found in %d command classes%n%n",
+                        result.problems().size(), result.commandCount()));
+                for (var problem : result.problems()) {
+                    report.append(String.format(
+                            "%s:%d %s: %s%n", problem.path(), problem.line(), problem.className(), problem.message()));
+                }
+
+                var file = new LightVirtualFile("lightbulb-command-audit.txt", PlainTextFileType.INSTANCE, report);
+                file.setWritable(false);
+                FileEditorManager.getInstance(project).openFile(file, true);
+            }
+        }.queue();
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.analysis;
+
+import com.jetbrains.python.psi.PyExpression;
+import com.jetbrains.python.psi.PyKeywordArgument;
+import io.github.tandemdude.hklbsupport.models.CommandParameter;
+import io.github.tandemdude.hklbsupport.models.ResolvedCommand;
+import java.util.List;
+
+/**
+ * The result of analysing a single Lightbulb command class definition.
+ *
+ * @param command the Lightbulb command class that the analysed class inherits from.
+ * @param missingParameters the required parameters that the class does not pass.
+ * @param typeMismatches the parameters passed with a value of an incompatible type.
+ * @param unknownKeywords the keyword arguments that are not parameters of the command class.
+ * @param duplicateKeywords the keyword arguments repeating a parameter that was already passed.
+ */
+public record CommandAnalysis(
+        ResolvedCommand command,
+        List<CommandParameter> missingParameters,
+        List<TypeMismatch> typeMismatches,
+        List<PyKeywordArgument> unknownKeywords,
+        List<PyKeywordArgument> duplicateKeywords) {
+    /**
+     * A parameter passed with a value of a type incompatible with the parameter's type.
+     *
+     * @param at the value expression passed to the parameter.
+     * @param expectedName the display name of the parameter's type.
+     * @param actualName the display name of the passed value's type.
+     */
+    public record TypeMismatch(PyExpression at, String expectedName, String actualName) {}
+}
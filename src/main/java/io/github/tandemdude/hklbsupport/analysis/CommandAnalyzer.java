@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.analysis;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.python.documentation.PythonDocumentationProvider;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyBoolLiteralExpression;
+import com.jetbrains.python.psi.PyExpression;
+import com.jetbrains.python.psi.PyKeywordArgument;
+import com.jetbrains.python.psi.PyNumericLiteralExpression;
+import com.jetbrains.python.psi.PyStringElement;
+import com.jetbrains.python.psi.PyStringLiteralExpression;
+import com.jetbrains.python.psi.impl.PyBuiltinCache;
+import com.jetbrains.python.psi.types.PyType;
+import com.jetbrains.python.psi.types.PyTypeChecker;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
+import io.github.tandemdude.hklbsupport.models.CommandParameter;
+import io.github.tandemdude.hklbsupport.utils.Utils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Single-pass analyser for Lightbulb command class definitions. The module, SDK and superclass
+ * resolution, as well as all checks, are performed once per class and shared between all inspections.
+ */
+public final class CommandAnalyzer {
+    private CommandAnalyzer() {}
+
+    /**
+     * Analyse the given class, if it is a Lightbulb command.<br>
+     * <br>
+     * The result is cached per class, and is only recomputed after a PSI modification, a change to the
+     * project's roots, or a change to the loaded Lightbulb data.
+     *
+     * @param pyClass the class to analyse.
+     * @return the analysis result, or {@code null} if the class is not a Lightbulb command.
+     */
+    public static @Nullable CommandAnalysis analyze(@NotNull PyClass pyClass) {
+        PluginMetrics.getInstance().recordLookup(PluginMetrics.Cache.COMMAND_ANALYSIS);
+        return CachedValuesManager.getCachedValue(pyClass, () -> {
+            PluginMetrics.getInstance().recordMiss(PluginMetrics.Cache.COMMAND_ANALYSIS);
+            var project = pyClass.getProject();
+            return CachedValueProvider.Result.create(
+                    doAnalyze(pyClass, TypeEvalContext.codeAnalysis(project, pyClass.getContainingFile())),
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    ProjectRootManager.getInstance(project),
+                    project.getService(ProjectDataService.class).getModificationTracker());
+        });
+    }
+
+    /**
+     * The result of checking a passed value's type against a parameter's type.
+     *
+     * @param matches whether the types match.
+     * @param expectedName the display name of the parameter's type, or {@code null} if the types match.
+     * @param actualName the display name of the passed value's type, or {@code null} if the types match.
+     */
+    private record TypeCheck(boolean matches, @Nullable String expectedName, @Nullable String actualName) {
+        static final TypeCheck MATCH = new TypeCheck(true, null, null);
+    }
+
+    private record TypePair(@Nullable PyType expected, @Nullable PyType actual) {}
+
+    /**
+     * Get the type of the given expression without invoking the type evaluator, if it is a simple literal.
+     *
+     * @param expression the expression to get the type of.
+     * @return the type of the literal, or {@code null} if the expression is not a simple literal.
+     */
+    private static @Nullable PyType getLiteralType(@NotNull PyExpression expression) {
+        var builtins = PyBuiltinCache.getInstance(expression);
+        if (expression instanceof PyStringLiteralExpression str
+                && str.getStringElements().stream().noneMatch(PyStringElement::isBytes)) {
+            return builtins.getStrType();
+        } else if (expression instanceof PyNumericLiteralExpression num && num.isIntegerLiteral()) {
+            return builtins.getIntType();
+        } else if (expression instanceof PyBoolLiteralExpression) {
+            return builtins.getBoolType();
+        }
+        return null;
+    }
+
+    /**
+     * Check whether the given actual type matches the given expected type.<br>
+     * <br>
+     * Results, including the rendered type names for mismatches, are cached per file until the next PSI
+     * modification. Command classes within a file mostly pass the same types to the same parameters, so
+     * each distinct pair of types only needs to be checked once.
+     */
+    private static @NotNull TypeCheck checkType(
+            @NotNull PyClass anchor,
+            @Nullable PyType expected,
+            @Nullable PyType actual,
+            @NotNull TypeEvalContext context) {
+        var metrics = PluginMetrics.getInstance();
+        metrics.recordLookup(PluginMetrics.Cache.TYPE_CHECK);
+
+        var checks = CachedValuesManager.getCachedValue(
+                anchor.getContainingFile(),
+                () -> CachedValueProvider.Result.create(
+                        new ConcurrentHashMap<TypePair, TypeCheck>(), PsiModificationTracker.MODIFICATION_COUNT));
+        return checks.computeIfAbsent(new TypePair(expected, actual), pair -> {
+            metrics.recordMiss(PluginMetrics.Cache.TYPE_CHECK);
+            if (PyTypeChecker.match(expected, actual, context)) {
+                return TypeCheck.MATCH;
+            }
+            return new TypeCheck(
+                    false,
+                    PythonDocumentationProvider.getTypeName(expected, context),
+                    PythonDocumentationProvider.getTypeName(actual, context));
+        });
+    }
+
+    private static @Nullable CommandAnalysis doAnalyze(@NotNull PyClass pyClass, @NotNull TypeEvalContext context) {
+        var resolved = Utils.resolveCommand(pyClass);
+        if (resolved == null) {
+            return null;
+        }
+
+        var command = resolved.command();
+        var keywords = Utils.getSuperclassKeywords(pyClass);
+        var existingParameters = keywords.expressions();
+
+        var missingParameters = new ArrayList<CommandParameter>();
+        for (var param : command.requiredParameters()) {
+            if (!existingParameters.containsKey(param.name())) {
+                missingParameters.add(param);
+            }
+        }
+
+        var typeMismatches = new ArrayList<CommandAnalysis.TypeMismatch>();
+        for (var param : command.parameters()) {
+            var passed = existingParameters.get(param.name());
+            if (passed == null) {
+                continue;
+            }
+
+            var expectedType = Utils.getParameterType(pyClass, param, context);
+            var literalType = getLiteralType(passed);
+            if (literalType != null && literalType.equals(expectedType)) {
+                // Most commonly a string literal passed to a 'str' parameter - no need to check any further
+                PluginMetrics.getInstance().recordLookup(PluginMetrics.Cache.TYPE_CHECK);
+                continue;
+            }
+
+            var actualType = literalType != null ? literalType : context.getType(passed);
+            var check = checkType(pyClass, expectedType, actualType, context);
+            if (!check.matches()) {
+                typeMismatches.add(new CommandAnalysis.TypeMismatch(passed, check.expectedName(), check.actualName()));
+            }
+        }
+
+        var unknownKeywords = new ArrayList<PyKeywordArgument>();
+        for (var expr : pyClass.getSuperClassExpressions()) {
+            if (!(expr instanceof PyKeywordArgument kwarg) || kwarg.getKeyword() == null) {
+                continue;
+            }
+
+            // 'metaclass' is consumed by Python itself rather than being passed to the metaclass
+            if (!kwarg.getKeyword().equals("metaclass")
+                    && !command.parametersByName().containsKey(kwarg.getKeyword())) {
+                unknownKeywords.add(kwarg);
+            }
+        }
+
+        return new CommandAnalysis(
+                resolved,
+                List.copyOf(missingParameters),
+                List.copyOf(typeMismatches),
+                List.copyOf(unknownKeywords),
+                keywords.duplicates());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.audit;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.jetbrains.python.psi.PyClass;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.analysis.CommandAnalyzer;
+import io.github.tandemdude.hklbsupport.index.CommandClassIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Project-wide audit of all Lightbulb command class definitions. Command classes are found using the
+ * {@link CommandClassIndex}, and are then analysed in parallel read actions.
+ */
+public final class CommandAuditor {
+    private CommandAuditor() {}
+
+    /**
+     * The result of auditing a project.
+     *
+     * @param commandCount the number of command classes that were audited.
+     * @param problems the problems found, ordered by file and line.
+     */
+    public record Result(int commandCount, List<CommandProblem> problems) {}
+
+    /**
+     * Find the classes within the project's content that may inherit from one of the Lightbulb command
+     * classes of the Lightbulb data currently loaded for the project. Candidates are found using the
+     * {@link CommandClassIndex} so no files need to be parsed - they should be confirmed by resolving
+     * each class's Lightbulb superclass.
+     *
+     * @param project the project to search.
+     * @return the candidate command classes.
+     */
+    public static @NotNull List<PyClass> findCommandClasses(@NotNull Project project) {
+        var baseClassNames = new LinkedHashSet<String>();
+        project.getService(ProjectDataService.class)
+                .getLoadedData()
+                .values()
+                .forEach(data -> data.commands().keySet().forEach(qualifiedName -> baseClassNames.add(
+                        qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1))));
+
+        return DumbService.getInstance(project)
+                .runReadActionInSmartMode(() -> CommandClassIndex.findCandidateClasses(
+                        project, baseClassNames, GlobalSearchScope.projectScope(project)));
+    }
+
+    /**
+     * Audit all Lightbulb command classes within the project's content.
+     *
+     * @param project the project to audit.
+     * @param indicator the indicator to report progress to.
+     * @return the audit result.
+     */
+    public static @NotNull Result audit(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+        indicator.setText("Finding Lightbulb command classes");
+        var candidates = findCommandClasses(project);
+
+        indicator.setText("Analysing Lightbulb command classes");
+        var dumbService = DumbService.getInstance(project);
+        var commandCount = new AtomicInteger();
+        var problems = new ConcurrentLinkedQueue<CommandProblem>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(candidates, indicator, cls -> {
+            dumbService.runReadActionInSmartMode(() -> {
+                var classProblems = cls.isValid() ? auditClass(project, cls) : null;
+                if (classProblems != null) {
+                    commandCount.incrementAndGet();
+                    problems.addAll(classProblems);
+                }
+            });
+            return true;
+        });
+
+        var sorted = new ArrayList<>(problems);
+        sorted.sort(Comparator.comparing(CommandProblem::path).thenComparingInt(CommandProblem::line));
+        return new Result(commandCount.get(), sorted);
+    }
+
+    /**
+     * Find the problems within a single Lightbulb command class. Must be called from within a read action.
+     *
+     * @param project the project containing the class.
+     * @param cls the class to audit.
+     * @return the problems found, or {@code null} if the class is not a Lightbulb command.
+     */
+    public static @Nullable List<CommandProblem> auditClass(@NotNull Project project, @NotNull PyClass cls) {
+        var analysis = CommandAnalyzer.analyze(cls);
+        if (analysis == null) {
+            return null;
+        }
+
+        var problems = new ArrayList<CommandProblem>();
+        for (var param : analysis.missingParameters()) {
+            problems.add(createProblem(
+                    project,
+                    CommandProblem.Kind.MISSING_PARAMETER,
+                    cls,
+                    cls,
+                    "Command missing required parameter '" + param.name() + "'"));
+        }
+        for (var mismatch : analysis.typeMismatches()) {
+            problems.add(createProblem(
+                    project,
+                    CommandProblem.Kind.INCORRECT_TYPE,
+                    cls,
+                    mismatch.at(),
+                    "Expected type '" + mismatch.expectedName() + "', got '" + mismatch.actualName() + "' instead"));
+        }
+        for (var kwarg : analysis.duplicateKeywords()) {
+            problems.add(createProblem(
+                    project,
+                    CommandProblem.Kind.DUPLICATE_PARAMETER,
+                    cls,
+                    kwarg,
+                    "Command parameter '" + kwarg.getKeyword() + "' passed more than once"));
+        }
+        for (var kwarg : analysis.unknownKeywords()) {
+            problems.add(createProblem(
+                    project,
+                    CommandProblem.Kind.UNKNOWN_PARAMETER,
+                    cls,
+                    kwarg,
+                    "Unknown command parameter '" + kwarg.getKeyword() + "'"));
+        }
+        return problems;
+    }
+
+    private static CommandProblem createProblem(
+            Project project, CommandProblem.Kind kind, PyClass cls, PsiElement at, String message) {
+        var file = at.getContainingFile();
+        var vf = file.getVirtualFile();
+
+        var projectDir = ProjectUtil.guessProjectDir(project);
+        var path = projectDir != null ? VfsUtilCore.getRelativePath(vf, projectDir) : null;
+        if (path == null) {
+            path = vf.getPath();
+        }
+
+        var document = PsiDocumentManager.getInstance(project).getDocument(file);
+        var line = document != null ? document.getLineNumber(at.getTextOffset()) + 1 : 0;
+
+        var className = cls.getQualifiedName() != null ? cls.getQualifiedName() : cls.getName();
+        return new CommandProblem(kind, path, line, className, message);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.audit;
+
+/**
+ * A problem found within a Lightbulb command class definition.
+ *
+ * @param kind the kind of problem.
+ * @param path the path of the file containing the command class.
+ * @param line the one-based line number that the problem was found on.
+ * @param className the qualified name of the command class.
+ * @param message the description of the problem.
+ */
+public record CommandProblem(Kind kind, String path, int line, String className, String message) {
+    public enum Kind {
+        MISSING_PARAMETER("missing-parameter", "Command missing required parameters"),
+        INCORRECT_TYPE("incorrect-type", "Command parameters having incorrect type"),
+        DUPLICATE_PARAMETER("duplicate-parameter", "Command parameters passed more than once"),
+        UNKNOWN_PARAMETER("unknown-parameter", "Command parameters not accepted by the command class");
+
+        public final String id;
+        public final String description;
+
+        Kind(String id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.diagnostics;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.ex.util.EditorUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.ui.JBUI;
+import io.github.tandemdude.hklbsupport.ApplicationDataService;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.models.LightbulbData;
+import java.awt.event.ActionEvent;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.JComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Dialog displaying the metrics collected by {@link PluginMetrics}, along with the Lightbulb data loaded
+ * for the current project.
+ */
+public class DiagnosticsDialog extends DialogWrapper {
+    private final Project project;
+    private final JBTextArea textArea = new JBTextArea();
+
+    public DiagnosticsDialog(@NotNull Project project) {
+        super(project);
+        this.project = project;
+
+        setTitle("Lightbulb Diagnostics");
+        setOKButtonText("Close");
+        textArea.setEditable(false);
+        textArea.setFont(EditorUtil.getEditorFont());
+        textArea.setText(render());
+        init();
+    }
+
+    String render() {
+        var metrics = PluginMetrics.getInstance();
+        var sb = new StringBuilder();
+
+        sb.append("Latency\n");
+        sb.append(String.format("  %-34s %8s %10s %10s", "", "count", "mean (ms)", "max (ms)"));
+        for (var bucket : PluginMetrics.Histogram.BUCKET_NAMES) {
+            sb.append(String.format(" %8s", bucket));
+        }
+        sb.append('\n');
+        for (var timer : PluginMetrics.Timer.values()) {
+            var histogram = metrics.getHistogram(timer);
+            sb.append(String.format(
+                    "  %-34s %8d %10.3f %10.3f",
+                    timer.displayName, histogram.count(), histogram.meanMillis(), histogram.maxMillis()));
+            for (var i = 0; i < PluginMetrics.Histogram.BUCKET_NAMES.length; i++) {
+                sb.append(String.format(" %8d", histogram.bucket(i)));
+            }
+            sb.append('\n');
+        }
+
+        sb.append("\nCaches\n");
+        sb.append(String.format("  %-34s %10s %10s %10s%n", "", "lookups", "misses", "hit rate"));
+        for (var cache : PluginMetrics.Cache.values()) {
+            var stats = metrics.getCacheStats(cache);
+            sb.append(String.format(
+                    "  %-34s %10d %10d %9.1f%%%n",
+                    cache.displayName, stats.lookups(), stats.misses(), stats.hitRate() * 100));
+        }
+
+        sb.append("\nLoaded Lightbulb data (").append(project.getName()).append(")\n");
+        var loaded = project.getService(ProjectDataService.class).getLoadedData();
+        if (loaded.isEmpty()) {
+            sb.append("  none\n");
+        }
+        loaded.forEach((sdkKey, data) -> sb.append(String.format(
+                "  %s: version %s, %d command classes, %d parameters%n",
+                sdkKey, data.version(), data.commands().size(), countParameters(data))));
+
+        // Data is shared between SDKs with identical installations, so only count each instance once
+        var distinct = Collections.newSetFromMap(new IdentityHashMap<LightbulbData, Boolean>());
+        distinct.addAll(loaded.values());
+        var applicationData = ApplicationManager.getApplication().getService(ApplicationDataService.class);
+        sb.append("\nMemory\n");
+        sb.append(String.format(
+                "  %-34s %d (unused SDKs evicted above %d)%n",
+                "Cached SDKs",
+                loaded.size(),
+                ProjectDataService.MAX_CACHED_SDKS));
+        sb.append(String.format(
+                "  %-34s %d (%d parameters)%n",
+                "Distinct configurations",
+                distinct.size(),
+                distinct.stream().mapToInt(DiagnosticsDialog::countParameters).sum()));
+        sb.append(String.format(
+                "  %-34s %d%n", "Configurations in memory (all)", applicationData.getInternedDataCount()));
+        var persisted = applicationData.getPersistedEntryCount();
+        sb.append(String.format(
+                "  %-34s %s (least recently used evicted above %d)%n",
+                "Persisted SDK entries",
+                persisted < 0 ? "not read yet" : persisted,
+                ApplicationDataService.MAX_PERSISTED_SDKS));
+
+        return sb.toString();
+    }
+
+    private static int countParameters(LightbulbData data) {
+        return data.commands().values().stream()
+                .mapToInt(command -> command.parameters().size())
+                .sum();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        var scrollPane = new JBScrollPane(textArea);
+        scrollPane.setPreferredSize(JBUI.size(900, 400));
+        return scrollPane;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[] {getOKAction()};
+    }
+
+    @Override
+    protected Action @NotNull [] createLeftSideActions() {
+        return new Action[] {
+            new AbstractAction("Reset Statistics") {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    PluginMetrics.getInstance().reset();
+                    textArea.setText(render());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.diagnostics;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.ThrowableComputable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Application level service collecting performance metrics for the plugin's hot paths. Metrics are only
+ * held in memory, and can be viewed using the diagnostics action.
+ */
+@Service(Service.Level.APP)
+public final class PluginMetrics {
+    /**
+     * Operations whose latency is recorded.
+     */
+    public enum Timer {
+        CACHE_RELOAD("Cache reload"),
+        CACHE_POPULATE("Cache population"),
+        COMPLETION("Parameter completion"),
+        REQUIRED_PARAMETERS_INSPECTION("Required parameters inspection"),
+        PARAMETER_TYPE_INSPECTION("Parameter type inspection"),
+        DUPLICATE_PARAMETERS_INSPECTION("Duplicate parameters inspection"),
+        DUPLICATE_NAMES_INSPECTION("Duplicate names inspection"),
+        UNKNOWN_PARAMETERS_INSPECTION("Unknown parameters inspection");
+
+        public final String displayName;
+
+        Timer(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * Caches whose hit rate is recorded.
+     */
+    public enum Cache {
+        PERSISTED_DATA("Persisted configuration"),
+        SHARED_DATA("Shared configuration"),
+        SUPERCLASS_RESOLUTION("Superclass resolution"),
+        COMMAND_ANALYSIS("Command analysis"),
+        TYPE_CHECK("Type check");
+
+        public final String displayName;
+
+        Cache(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * Latency histogram with exponentially sized buckets, starting at 0.1ms.
+     */
+    public static final class Histogram {
+        public static final String[] BUCKET_NAMES = {"<0.1ms", "<1ms", "<10ms", "<100ms", "<1s", ">=1s"};
+        private static final long[] BUCKET_BOUNDS_NANOS = {100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000};
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_NAMES.length);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+
+            var bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && nanos >= BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (var i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double meanMillis() {
+            var count = count();
+            return count == 0 ? 0 : totalNanos.sum() / (count * 1_000_000.0);
+        }
+
+        public double maxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        public long bucket(int index) {
+            return buckets.get(index);
+        }
+    }
+
+    /**
+     * Lookup and miss counters for a cache.
+     */
+    public static final class CacheStats {
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void reset() {
+            lookups.reset();
+            misses.reset();
+        }
+
+        public long lookups() {
+            return lookups.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+
+        public long hits() {
+            return Math.max(0, lookups() - misses());
+        }
+
+        public double hitRate() {
+            var lookups = lookups();
+            return lookups == 0 ? 0 : (double) hits() / lookups;
+        }
+    }
+
+    private final Map<Timer, Histogram> histograms = new EnumMap<>(Timer.class);
+    private final Map<Cache, CacheStats> cacheStats = new EnumMap<>(Cache.class);
+
+    public PluginMetrics() {
+        for (var timer : Timer.values()) {
+            histograms.put(timer, new Histogram());
+        }
+        for (var cache : Cache.values()) {
+            cacheStats.put(cache, new CacheStats());
+        }
+    }
+
+    public static PluginMetrics getInstance() {
+        return ApplicationManager.getApplication().getService(PluginMetrics.class);
+    }
+
+    /**
+     * Run the given computation, recording its latency against the given timer.
+     *
+     * @param timer the timer to record the latency against.
+     * @param computation the computation to run.
+     * @return the result of the computation.
+     * @throws E if the computation throws.
+     */
+    public <T, E extends Throwable> T compute(@NotNull Timer timer, @NotNull ThrowableComputable<T, E> computation)
+            throws E {
+        var start = System.nanoTime();
+        try {
+            return computation.compute();
+        } finally {
+            histograms.get(timer).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Run the given runnable, recording its latency against the given timer.
+     *
+     * @param timer the timer to record the latency against.
+     * @param runnable the runnable to run.
+     */
+    public void run(@NotNull Timer timer, @NotNull Runnable runnable) {
+        var start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            histograms.get(timer).record(System.nanoTime() - start);
+        }
+    }
+
+    public void recordLookup(@NotNull Cache cache) {
+        cacheStats.get(cache).lookups.increment();
+    }
+
+    public void recordMiss(@NotNull Cache cache) {
+        cacheStats.get(cache).misses.increment();
+    }
+
+    public Histogram getHistogram(@NotNull Timer timer) {
+        return histograms.get(timer);
+    }
+
+    public CacheStats getCacheStats(@NotNull Cache cache) {
+        return cacheStats.get(cache);
+    }
+
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        cacheStats.values().forEach(CacheStats::reset);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.headless;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.audit.CommandAuditor;
+import io.github.tandemdude.hklbsupport.audit.CommandProblem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Headless entry point validating all Lightbulb command classes within a project, for use in CI.<br>
+ * <br>
+ * Usage: {@code <ide> lightbulb-validate <project path> [<report path>]}. The project is opened and indexed,
+ * the Lightbulb data for each module's SDK is loaded, and every command class is audited in parallel using
+ * {@link CommandAuditor}. The problems found are written as a SARIF report, and the process exits with a
+ * non-zero status if any were found.
+ */
+public final class CommandValidatorStarter implements ApplicationStarter {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String DEFAULT_REPORT_PATH = "lightbulb-report.sarif";
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        // The first argument is the command name itself
+        if (args.size() < 2 || args.size() > 3) {
+            System.err.println("Usage: lightbulb-validate <project path> [<report path>]");
+            System.exit(2);
+        }
+
+        var projectPath = Path.of(args.get(1)).toAbsolutePath();
+        var reportPath = Path.of(args.size() == 3 ? args.get(2) : DEFAULT_REPORT_PATH);
+
+        var project = ProjectUtil.openOrImport(projectPath, null, false);
+        if (project == null) {
+            System.err.println("Failed to open project at " + projectPath);
+            System.exit(2);
+        }
+
+        var exitCode = 0;
+        try {
+            var result = validate(project);
+            writeReport(result, reportPath);
+            System.out.printf(
+                    "Found %d problems in %d Lightbulb command classes, report written to %s%n",
+                    result.problems().size(), result.commandCount(), reportPath);
+            if (!result.problems().isEmpty()) {
+                exitCode = 1;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write report: " + e.getMessage());
+            exitCode = 2;
+        } finally {
+            ProjectManager.getInstance().closeAndDispose(project);
+        }
+        System.exit(exitCode);
+    }
+
+    private static CommandAuditor.Result validate(Project project) {
+        // Indexing must complete before any classes can be found
+        DumbService.getInstance(project).waitForSmartMode();
+
+        // Load the data for each SDK synchronously - it would otherwise only be loaded in the background
+        // once requested by the analysis
+        project.getService(ProjectDataService.class).loadMissingModuleSdks();
+
+        var indicator = new EmptyProgressIndicator();
+        return ProgressManager.getInstance().runProcess(() -> CommandAuditor.audit(project, indicator), indicator);
+    }
+
+    private static String getLevel(CommandProblem.Kind kind) {
+        return switch (kind) {
+            case MISSING_PARAMETER, DUPLICATE_PARAMETER -> "error";
+            case INCORRECT_TYPE, UNKNOWN_PARAMETER -> "warning";
+        };
+    }
+
+    private static void writeReport(CommandAuditor.Result result, Path reportPath) throws IOException {
+        var report = MAPPER.createObjectNode();
+        report.put("$schema", "https://json.schemastore.org/sarif-2.1.0.json");
+        report.put("version", "2.1.0");
+
+        var run = report.putArray("runs").addObject();
+        var driver = run.putObject("tool").putObject("driver");
+        driver.put("name", "hikari-lightbulb-support");
+        var rules = driver.putArray("rules");
+        for (var kind : CommandProblem.Kind.values()) {
+            var rule = rules.addObject();
+            rule.put("id", kind.id);
+            rule.putObject("shortDescription").put("text", kind.description);
+            rule.putObject("defaultConfiguration").put("level", getLevel(kind));
+        }
+
+        var results = run.putArray("results");
+        for (var problem : result.problems()) {
+            var entry = results.addObject();
+            entry.put("ruleId", problem.kind().id);
+            entry.put("level", getLevel(problem.kind()));
+            entry.putObject("message").put("text", problem.className() + ": " + problem.message());
+
+            var location = entry.putArray("locations").addObject().putObject("physicalLocation");
+            location.putObject("artifactLocation").put("uri", problem.path());
+            if (problem.line() > 0) {
+                location.putObject("region").put("startLine", problem.line());
+            }
+        }
+
+        var properties = run.putObject("properties");
+        properties.put("commandCount", result.commandCount());
+
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        MAPPER.writeValue(reportPath.toFile(), report);
+    }
+}
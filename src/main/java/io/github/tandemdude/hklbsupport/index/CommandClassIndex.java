@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.IndexedFile;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.python.PythonFileType;
+import com.jetbrains.python.psi.PyAssignmentStatement;
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyFile;
+import com.jetbrains.python.psi.PyKeywordArgument;
+import com.jetbrains.python.psi.PyReferenceExpression;
+import com.jetbrains.python.psi.PyStringLiteralExpression;
+import com.jetbrains.python.psi.PyTargetExpression;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * File based index of the class definitions within the project's Python files, keyed by the names of the
+ * superclasses they inherit from. Each entry records the keyword arguments (e.g. {@code name=},
+ * {@code description=}) passed within the class's superclass list. Classes passing a string literal
+ * {@code name=} keyword argument are additionally indexed under a key derived from the passed name
+ * (see {@link #nameKey(String)}), so that commands with the same name can be found.<br>
+ * <br>
+ * Module level aliases of a class - {@code from lightbulb import SlashCommand as Slash} and
+ * {@code Base = lightbulb.SlashCommand} - are indexed under a key derived from the aliased name
+ * (see {@link #aliasKey(String)}), with an entry recording the alias, so that classes inheriting from the
+ * alias are also found.<br>
+ * <br>
+ * References cannot be resolved while indexing, so the entries are only candidates - they should be
+ * confirmed by resolving the class's Lightbulb superclass once found. Bases that cannot be traced by name
+ * within the project's content are not found - for example aliases defined within a library, aliases
+ * assigned inside a function or class body, or bases created dynamically.
+ */
+public final class CommandClassIndex extends FileBasedIndexExtension<String, List<CommandClassIndex.Entry>> {
+    public static final ID<String, List<Entry>> NAME = ID.create("io.github.tandemdude.hklbsupport.CommandClassIndex");
+
+    // Superclass names are identifiers, so can never start with these prefixes
+    private static final String NAME_KEY_PREFIX = "=name:";
+    private static final String ALIAS_KEY_PREFIX = "=alias:";
+
+    /**
+     * An indexed class definition, or alias of a class.
+     *
+     * @param className the name of the class, or the alias name.
+     * @param offset the offset of the class's name identifier, or the alias, within the file.
+     * @param keywords the value passed for each keyword argument within the superclass list. The string value
+     *     is stored for string literals, otherwise the expression's text. Always empty for aliases.
+     */
+    public record Entry(String className, int offset, Map<String, String> keywords) {}
+
+    private static final DataExternalizer<List<Entry>> EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, List<Entry> value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.size());
+            for (var entry : value) {
+                IOUtil.writeUTF(out, entry.className());
+                DataInputOutputUtil.writeINT(out, entry.offset());
+                DataInputOutputUtil.writeINT(out, entry.keywords().size());
+                for (var kwarg : entry.keywords().entrySet()) {
+                    IOUtil.writeUTF(out, kwarg.getKey());
+                    IOUtil.writeUTF(out, kwarg.getValue());
+                }
+            }
+        }
+
+        @Override
+        public List<Entry> read(@NotNull DataInput in) throws IOException {
+            var size = DataInputOutputUtil.readINT(in);
+            var entries = new ArrayList<Entry>(size);
+            for (var i = 0; i < size; i++) {
+                var className = IOUtil.readUTF(in);
+                var offset = DataInputOutputUtil.readINT(in);
+                var keywordCount = DataInputOutputUtil.readINT(in);
+                var keywords = new LinkedHashMap<String, String>(keywordCount);
+                for (var j = 0; j < keywordCount; j++) {
+                    keywords.put(IOUtil.readUTF(in), IOUtil.readUTF(in));
+                }
+                entries.add(new Entry(className, offset, keywords));
+            }
+            return entries;
+        }
+    };
+
+    @Override
+    public @NotNull ID<String, List<Entry>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<Entry>, FileContent> getIndexer() {
+        return inputData -> {
+            if (!(inputData.getPsiFile() instanceof PyFile pyFile)) {
+                return Map.of();
+            }
+
+            var result = new HashMap<String, List<Entry>>();
+            indexAliases(pyFile, result);
+            for (var cls : PsiTreeUtil.findChildrenOfType(pyFile, PyClass.class)) {
+                if (cls.getName() == null || cls.getNameIdentifier() == null) {
+                    continue;
+                }
+
+                var keys = new LinkedHashSet<String>();
+                var keywords = new LinkedHashMap<String, String>();
+                for (var expr : cls.getSuperClassExpressions()) {
+                    if (expr instanceof PyReferenceExpression ref && ref.getReferencedName() != null) {
+                        keys.add(ref.getReferencedName());
+                    } else if (expr instanceof PyKeywordArgument kwarg
+                            && kwarg.getKeyword() != null
+                            && kwarg.getValueExpression() != null
+                            && !keywords.containsKey(kwarg.getKeyword())) {
+                        var value = kwarg.getValueExpression();
+                        if (value instanceof PyStringLiteralExpression str) {
+                            keywords.put(kwarg.getKeyword(), str.getStringValue());
+                            if (kwarg.getKeyword().equals("name")) {
+                                keys.add(nameKey(str.getStringValue()));
+                            }
+                        } else {
+                            keywords.put(kwarg.getKeyword(), value.getText());
+                        }
+                    }
+                }
+
+                var entry = new Entry(cls.getName(), cls.getNameIdentifier().getTextOffset(), keywords);
+                for (var key : keys) {
+                    result.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                }
+            }
+            return result;
+        };
+    }
+
+    private static void indexAliases(PyFile pyFile, Map<String, List<Entry>> result) {
+        for (var fromImport : pyFile.getFromImports()) {
+            for (var element : fromImport.getImportElements()) {
+                var importedName = element.getImportedQName();
+                if (element.getAsName() != null && importedName != null && importedName.getLastComponent() != null) {
+                    result.computeIfAbsent(aliasKey(importedName.getLastComponent()), k -> new ArrayList<>())
+                            .add(new Entry(element.getAsName(), element.getTextOffset(), Map.of()));
+                }
+            }
+        }
+
+        for (var statement : pyFile.getStatements()) {
+            if (statement instanceof PyAssignmentStatement assignment
+                    && assignment.getTargets().length == 1
+                    && assignment.getTargets()[0] instanceof PyTargetExpression target
+                    && target.getName() != null
+                    && assignment.getAssignedValue() instanceof PyReferenceExpression ref
+                    && ref.getReferencedName() != null) {
+                result.computeIfAbsent(aliasKey(ref.getReferencedName()), k -> new ArrayList<>())
+                        .add(new Entry(target.getName(), target.getTextOffset(), Map.of()));
+            }
+        }
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<Entry>> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new ProjectContentInputFilter();
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Only index Python files within the content of a project - command classes are never defined within
+     * libraries, and skipping them avoids parsing every file within each SDK's site-packages.
+     */
+    private static final class ProjectContentInputFilter extends DefaultFileTypeSpecificInputFilter
+            implements FileBasedIndex.ProjectSpecificInputFilter {
+        ProjectContentInputFilter() {
+            super(PythonFileType.INSTANCE);
+        }
+
+        @Override
+        public boolean acceptInput(@NotNull IndexedFile file) {
+            var project = file.getProject();
+            return project == null
+                    || ProjectFileIndex.getInstance(project).isInContent(file.getFile());
+        }
+    }
+
+    /**
+     * Find the classes within the given scope that may inherit, directly or through other classes or aliases
+     * within the scope, from any of the classes with the given names. Must be called from within a read
+     * action.
+     *
+     * @param project the project to search.
+     * @param baseClassNames the unqualified names of the base classes.
+     * @param scope the scope to search.
+     * @return the candidate classes.
+     */
+    public static @NotNull List<PyClass> findCandidateClasses(
+            @NotNull Project project, @NotNull Collection<String> baseClassNames, @NotNull GlobalSearchScope scope) {
+        var index = FileBasedIndex.getInstance();
+
+        var visited = new HashSet<>(baseClassNames);
+        var queue = new ArrayDeque<>(baseClassNames);
+        var candidates = new LinkedHashMap<VirtualFile, List<Integer>>();
+        while (!queue.isEmpty()) {
+            var name = queue.poll();
+            // Aliases are not classes themselves, but classes may inherit from them
+            index.processValues(
+                    NAME,
+                    aliasKey(name),
+                    null,
+                    (file, entries) -> {
+                        for (var entry : entries) {
+                            if (visited.add(entry.className())) {
+                                queue.add(entry.className());
+                            }
+                        }
+                        return true;
+                    },
+                    scope);
+            index.processValues(
+                    NAME,
+                    name,
+                    null,
+                    (file, entries) -> {
+                        for (var entry : entries) {
+                            candidates.computeIfAbsent(file, k -> new ArrayList<>()).add(entry.offset());
+                            if (visited.add(entry.className())) {
+                                queue.add(entry.className());
+                            }
+                        }
+                        return true;
+                    },
+                    scope);
+        }
+
+        return resolveClasses(project, candidates);
+    }
+
+    /**
+     * Find the classes within the given scope that pass the given {@code name=} keyword argument within their
+     * superclass list. Must be called from within a read action.
+     *
+     * @param project the project to search.
+     * @param name the command name to find.
+     * @param scope the scope to search.
+     * @return the classes passing the given name.
+     */
+    public static @NotNull List<PyClass> findClassesWithName(
+            @NotNull Project project, @NotNull String name, @NotNull GlobalSearchScope scope) {
+        var candidates = new LinkedHashMap<VirtualFile, List<Integer>>();
+        FileBasedIndex.getInstance()
+                .processValues(
+                        NAME,
+                        nameKey(name),
+                        null,
+                        (file, entries) -> {
+                            for (var entry : entries) {
+                                candidates.computeIfAbsent(file, k -> new ArrayList<>()).add(entry.offset());
+                            }
+                            return true;
+                        },
+                        scope);
+        return resolveClasses(project, candidates);
+    }
+
+    /**
+     * Get the key that classes passing the given {@code name=} keyword argument are indexed under.
+     *
+     * @param name the passed name.
+     * @return the index key.
+     */
+    static @NotNull String nameKey(@NotNull String name) {
+        return NAME_KEY_PREFIX + name;
+    }
+
+    /**
+     * Get the key that aliases of the class with the given name are indexed under.
+     *
+     * @param name the aliased class name.
+     * @return the index key.
+     */
+    static @NotNull String aliasKey(@NotNull String name) {
+        return ALIAS_KEY_PREFIX + name;
+    }
+
+    private static List<PyClass> resolveClasses(Project project, Map<VirtualFile, List<Integer>> candidates) {
+        var psiManager = PsiManager.getInstance(project);
+
+        var classes = new LinkedHashSet<PyClass>();
+        candidates.forEach((file, offsets) -> {
+            var psiFile = psiManager.findFile(file);
+            if (psiFile == null) {
+                return;
+            }
+
+            for (var offset : offsets) {
+                var cls = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), PyClass.class, false);
+                if (cls != null) {
+                    classes.add(cls);
+                }
+            }
+        });
+        return new ArrayList<>(classes);
+    }
+}
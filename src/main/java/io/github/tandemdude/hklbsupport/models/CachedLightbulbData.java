@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.models;
+
+import java.util.Map;
+
+/**
+ * Persisted form of the {@link LightbulbData} loaded for a single SDK, along with the information
+ * required to determine whether the entry is still up-to-date. Entries are keyed by the home path of the
+ * SDK's interpreter.
+ *
+ * @param version the version of Lightbulb installed.
+ * @param metaparamsStamp the timestamp of the {@code metaparams.json} file the data was parsed from.
+ * @param metaparamsLength the length of the {@code metaparams.json} file the data was parsed from.
+ * @param initStamp the timestamp of the {@code __init__.py} file the version was read from.
+ * @param contentHash the hash of the {@code metaparams.json} file contents.
+ * @param paramData the parsed parameter data.
+ * @param lastUsed the time the entry was last loaded, in milliseconds since the epoch.
+ */
+public record CachedLightbulbData(
+        String version,
+        long metaparamsStamp,
+        long metaparamsLength,
+        long initStamp,
+        String contentHash,
+        Map<String, ParamData> paramData,
+        long lastUsed) {}
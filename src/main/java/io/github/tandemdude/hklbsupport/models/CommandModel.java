@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.models;
+
+import com.intellij.codeInsight.completion.InsertHandler;
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import io.github.tandemdude.hklbsupport.utils.BkTree;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled form of the {@link ParamData} for a single Lightbulb command class. Built once when the
+ * {@link LightbulbData} is loaded so that inspections and completions do not need to rebuild it.
+ *
+ * @param parameters all parameters accepted by the command class - required parameters first.
+ * @param requiredParameters the parameters that must be passed by the command.
+ * @param parametersByName all parameters accepted by the command class, keyed by name.
+ * @param parameterNames the names of all parameters accepted by the command class, used to suggest
+ *     corrections for unknown parameters.
+ */
+public record CommandModel(
+        List<CommandParameter> parameters,
+        List<CommandParameter> requiredParameters,
+        Map<String, CommandParameter> parametersByName,
+        BkTree parameterNames) {
+    private static final double REQUIRED_PRIORITY = 1;
+    private static final double OPTIONAL_PRIORITY = 0;
+
+    // Inserts a pair of quotes after string parameters, placing the caret between them
+    private static final InsertHandler<LookupElement> STRING_INSERT_HANDLER = (context, item) -> {
+        var offset = context.getTailOffset();
+        var text = context.getDocument().getCharsSequence();
+        if (offset < text.length() && (text.charAt(offset) == '"' || text.charAt(offset) == '\'')) {
+            return;
+        }
+
+        context.getDocument().insertString(offset, "\"\"");
+        context.getEditor().getCaretModel().moveToOffset(offset + 1);
+    };
+
+    private static LookupElement createLookupElement(String name, String type, boolean required) {
+        var builder = LookupElementBuilder.create(name + "=").withTypeText(type).withBoldness(required);
+        if ("str".equals(type)) {
+            builder = builder.withInsertHandler(STRING_INSERT_HANDLER);
+        }
+        // Required parameters are suggested before optional ones
+        return PrioritizedLookupElement.withPriority(builder, required ? REQUIRED_PRIORITY : OPTIONAL_PRIORITY);
+    }
+
+    private static void addParameters(Map<String, String> params, boolean required, List<CommandParameter> into) {
+        params.forEach((name, type) ->
+                into.add(new CommandParameter(name, type, required, createLookupElement(name, type, required))));
+    }
+
+    /**
+     * Compile the given {@link ParamData} into a {@link CommandModel}.
+     *
+     * @param paramData the parameter data to compile.
+     * @return the compiled model.
+     */
+    public static CommandModel compile(ParamData paramData) {
+        var parameters = new ArrayList<CommandParameter>();
+        addParameters(paramData.required(), true, parameters);
+        var requiredCount = parameters.size();
+        addParameters(paramData.optional(), false, parameters);
+
+        var parametersByName = new LinkedHashMap<String, CommandParameter>();
+        var parameterNames = new BkTree();
+        parameters.forEach(param -> {
+            parametersByName.putIfAbsent(param.name(), param);
+            parameterNames.add(param.name());
+        });
+
+        return new CommandModel(
+                List.copyOf(parameters),
+                List.copyOf(parameters.subList(0, requiredCount)),
+                Collections.unmodifiableMap(parametersByName),
+                parameterNames);
+    }
+
+    /**
+     * Get the names of the parameters accepted by the command class that are most similar to the given
+     * name, for example to suggest corrections for a misspelled parameter.
+     *
+     * @param name the name to find similar parameter names to.
+     * @param limit the maximum number of names to return.
+     * @return the similar parameter names, most similar first.
+     */
+    public List<String> suggestParameterNames(String name, int limit) {
+        // Allow roughly one edit for every three characters so that short names do not match everything
+        var maxDistance = Math.min(3, Math.max(1, name.length() / 3));
+        var matches = parameterNames.search(name, maxDistance);
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+}
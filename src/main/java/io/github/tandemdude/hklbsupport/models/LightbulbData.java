@@ -22,6 +22,18 @@
 
 package io.github.tandemdude.hklbsupport.models;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
-public record LightbulbData(String version, Map<String, ParamData> paramData) {}
+public record LightbulbData(String version, Map<String, ParamData> paramData, Map<String, CommandModel> commands) {
+    public LightbulbData(String version, Map<String, ParamData> paramData) {
+        this(version, paramData, compileCommands(paramData));
+    }
+
+    private static Map<String, CommandModel> compileCommands(Map<String, ParamData> paramData) {
+        var commands = new HashMap<String, CommandModel>();
+        paramData.forEach((name, data) -> commands.put(name, CommandModel.compile(data)));
+        return Collections.unmodifiableMap(commands);
+    }
+}
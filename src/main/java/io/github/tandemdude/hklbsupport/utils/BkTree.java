@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.utils;
+
+import com.intellij.util.text.EditDistance;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * BK-tree of strings using the Levenshtein distance. Allows the strings within a given distance of a query
+ * to be found without calculating the distance to every string within the tree.<br>
+ * <br>
+ * Not thread-safe while being built - the tree should not be modified once it has been shared.
+ */
+public final class BkTree {
+    private static final class Node {
+        final String value;
+        final Map<Integer, Node> children = new HashMap<>();
+
+        Node(String value) {
+            this.value = value;
+        }
+    }
+
+    private record Match(String value, int distance) {}
+
+    private @Nullable Node root = null;
+
+    private static int distance(String a, String b) {
+        return EditDistance.levenshtein(a, b, true);
+    }
+
+    /**
+     * Add the given string to the tree. Adding a string that is already present has no effect.
+     *
+     * @param value the string to add.
+     */
+    public void add(@NotNull String value) {
+        if (root == null) {
+            root = new Node(value);
+            return;
+        }
+
+        var node = root;
+        while (true) {
+            var distance = distance(value, node.value);
+            if (distance == 0) {
+                return;
+            }
+
+            var child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(value));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Find the strings within the given distance of the query.
+     *
+     * @param query the string to find similar strings to.
+     * @param maxDistance the maximum distance of the strings to return.
+     * @return the matching strings, closest first.
+     */
+    public @NotNull List<String> search(@NotNull String query, int maxDistance) {
+        if (root == null) {
+            return List.of();
+        }
+
+        var matches = new ArrayList<Match>();
+        var queue = new ArrayDeque<Node>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            var node = queue.poll();
+            var distance = distance(query, node.value);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.value, distance));
+            }
+
+            // By the triangle inequality, only children within maxDistance of this node's distance can match
+            node.children.forEach((childDistance, child) -> {
+                if (Math.abs(childDistance - distance) <= maxDistance) {
+                    queue.add(child);
+                }
+            });
+        }
+
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::value));
+        return matches.stream().map(Match::value).toList();
+    }
+}
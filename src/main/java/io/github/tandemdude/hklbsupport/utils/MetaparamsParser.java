@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024-present tandemdude
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.tandemdude.hklbsupport.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.tandemdude.hklbsupport.models.ParamData;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Streaming parser for Lightbulb's {@code metaparams.json} file.<br>
+ * <br>
+ * The schema is validated as the file is read - malformed entries are skipped and reported rather than
+ * causing the entire file to be rejected. Parameter names and type strings are interned, as the same
+ * few types (e.g. {@code str}) are repeated across every command class.
+ */
+public final class MetaparamsParser {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final List<String> problems;
+    private final Map<String, String> interned = new HashMap<>();
+
+    private MetaparamsParser(JsonParser parser, List<String> problems) {
+        this.parser = parser;
+        this.problems = problems;
+    }
+
+    /**
+     * Parse the contents of a {@code metaparams.json} file.
+     *
+     * @param content the contents of the file.
+     * @param problems the list to add a description of each malformed entry to.
+     * @return the parsed parameter data for each command class, keyed by qualified class name.
+     * @throws IOException if the content is not valid JSON, or is not a JSON object.
+     */
+    public static @NotNull Map<String, ParamData> parse(byte @NotNull [] content, @NotNull List<String> problems)
+            throws IOException {
+        try (var parser = FACTORY.createParser(content)) {
+            return new MetaparamsParser(parser, problems).readCommands();
+        }
+    }
+
+    private static String intern(Map<String, String> interned, String value) {
+        var existing = interned.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private Map<String, ParamData> readCommands() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected metaparams.json to contain a JSON object");
+        }
+
+        var commands = new HashMap<String, ParamData>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var commandName = parser.getCurrentName();
+            parser.nextToken();
+
+            var paramData = readParamData(commandName);
+            if (paramData != null) {
+                commands.put(commandName, paramData);
+            }
+        }
+        return Collections.unmodifiableMap(commands);
+    }
+
+    private @Nullable ParamData readParamData(String commandName) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            problems.add("'" + commandName + "' must be an object");
+            parser.skipChildren();
+            return null;
+        }
+
+        Map<String, String> required = null;
+        Map<String, String> optional = null;
+        var valid = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.getCurrentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "required" -> {
+                    required = readParams(commandName, field);
+                    valid &= required != null;
+                }
+                case "optional" -> {
+                    optional = readParams(commandName, field);
+                    valid &= optional != null;
+                }
+                // Ignore unknown fields so that additions to the file format do not break older plugin versions
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (valid && (required == null || optional == null)) {
+            problems.add("'" + commandName + "' must contain both 'required' and 'optional'");
+            valid = false;
+        }
+        return valid ? new ParamData(required, optional) : null;
+    }
+
+    private @Nullable Map<String, String> readParams(String commandName, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            problems.add("'" + commandName + "." + field + "' must be an object");
+            parser.skipChildren();
+            return null;
+        }
+
+        var params = new LinkedHashMap<String, String>();
+        var valid = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var name = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                problems.add("'" + commandName + "." + field + "." + name + "' must be a string");
+                parser.skipChildren();
+                valid = false;
+                continue;
+            }
+            params.put(intern(interned, name), intern(interned, parser.getText()));
+        }
+        return valid ? Collections.unmodifiableMap(params) : null;
+    }
+}
@@ -23,17 +23,30 @@
 package io.github.tandemdude.hklbsupport.utils;
 
 import com.intellij.openapi.module.ModuleUtilCore;
-import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.jetbrains.python.psi.PyClass;
 import com.jetbrains.python.psi.PyExpression;
 import com.jetbrains.python.psi.PyKeywordArgument;
+import com.jetbrains.python.psi.types.PyType;
+import com.jetbrains.python.psi.types.PyTypeParser;
 import com.jetbrains.python.psi.types.TypeEvalContext;
 import com.jetbrains.python.sdk.PythonSdkUtil;
 import io.github.tandemdude.hklbsupport.ProjectDataService;
+import io.github.tandemdude.hklbsupport.diagnostics.PluginMetrics;
+import io.github.tandemdude.hklbsupport.models.CommandParameter;
 import io.github.tandemdude.hklbsupport.models.LightbulbData;
-import java.util.Arrays;
+import io.github.tandemdude.hklbsupport.models.ResolvedCommand;
+import io.github.tandemdude.hklbsupport.models.SuperclassKeywords;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -44,7 +57,10 @@ public class Utils {
     /**
      * Extract the Lightbulb superclass that a {@link PyClass} inherits from.<br>
      * <br>
-     * Only the first Lightbulb superclass found will be returned.
+     * The class's ancestors are searched in method resolution order, so commands inheriting from Lightbulb
+     * through intermediate base classes are also detected, and the same class is found as would be used at
+     * runtime. Only the first Lightbulb superclass found will be returned. Callers should prefer
+     * {@link #resolveCommand(PyClass)}, which memoizes the result per class.
      *
      * @param context the current {@link TypeEvalContext}.
      * @param pyClass the class to extract the Lightbulb superclass from.
@@ -53,14 +69,46 @@ public class Utils {
      */
     public static @Nullable PyClass getLightbulbSuperclass(
             @NotNull TypeEvalContext context, @NotNull PyClass pyClass, @NotNull LightbulbData moduleData) {
-        PyClass commandSuperClass = null;
-        for (var superClass : pyClass.getSuperClasses(context)) {
-            if (moduleData.paramData().containsKey(superClass.getQualifiedName())) {
-                commandSuperClass = superClass;
-                break;
+        for (var ancestor : pyClass.getAncestorClasses(context)) {
+            if (moduleData.paramData().containsKey(ancestor.getQualifiedName())) {
+                return ancestor;
             }
         }
-        return commandSuperClass;
+        return null;
+    }
+
+    /**
+     * Resolve the Lightbulb command class that a {@link PyClass} inherits from, using the Lightbulb data
+     * for the module containing the class.<br>
+     * <br>
+     * The result is cached per class, and is only recomputed after a PSI modification, a change to the
+     * project's roots, or a change to the loaded Lightbulb data.
+     *
+     * @param pyClass the class to resolve the Lightbulb command class for.
+     * @return the resolved command, or {@code null} if the class is not a Lightbulb command.
+     */
+    public static @Nullable ResolvedCommand resolveCommand(@NotNull PyClass pyClass) {
+        PluginMetrics.getInstance().recordLookup(PluginMetrics.Cache.SUPERCLASS_RESOLUTION);
+        return CachedValuesManager.getCachedValue(pyClass, () -> {
+            PluginMetrics.getInstance().recordMiss(PluginMetrics.Cache.SUPERCLASS_RESOLUTION);
+            var project = pyClass.getProject();
+
+            ResolvedCommand resolved = null;
+            var lbData = getLightbulbDataForNode(pyClass);
+            if (lbData != null) {
+                var context = TypeEvalContext.codeAnalysis(project, pyClass.getContainingFile());
+                var superclass = getLightbulbSuperclass(context, pyClass, lbData);
+                if (superclass != null) {
+                    resolved = new ResolvedCommand(superclass, lbData.commands().get(superclass.getQualifiedName()));
+                }
+            }
+
+            return CachedValueProvider.Result.create(
+                    resolved,
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    ProjectRootManager.getInstance(project),
+                    project.getService(ProjectDataService.class).getModificationTracker());
+        });
     }
 
     public static @Nullable LightbulbData getLightbulbDataForNode(@NotNull PyClass node) {
@@ -77,13 +125,66 @@ public class Utils {
         return module.getProject().getService(ProjectDataService.class).getLightbulbData(sdk);
     }
 
-    public static Map<String, PyExpression> getKeywordSuperclassExpressions(PyClass node) {
-        return Arrays.stream(node.getSuperClassExpressions())
-                .filter(expr -> expr instanceof PyKeywordArgument)
-                .map(expr -> (PyKeywordArgument) expr)
+    /**
+     * Get the keyword arguments passed within a class definition's superclass list.<br>
+     * <br>
+     * The result is cached per class until the containing file is modified.
+     *
+     * @param node the class to get the keyword arguments of.
+     * @return the keyword arguments.
+     */
+    public static @NotNull SuperclassKeywords getSuperclassKeywords(@NotNull PyClass node) {
+        return CachedValuesManager.getCachedValue(node, () -> {
+            var superClassExpressions = node.getSuperClassExpressions();
+            var expressions = new LinkedHashMap<String, PyExpression>(superClassExpressions.length);
+            List<PyKeywordArgument> duplicates = List.of();
+
+            for (var expr : superClassExpressions) {
                 // I had a null pointer exception from this previously so probably good to just make sure
-                .filter(expr -> expr.getKeyword() != null && expr.getValueExpression() != null)
-                .map(expr -> Pair.create(expr.getKeyword(), expr.getValueExpression()))
-                .collect(Collectors.toMap(p -> p.getFirst(), p -> p.getSecond()));
+                if (!(expr instanceof PyKeywordArgument kwarg)
+                        || kwarg.getKeyword() == null
+                        || kwarg.getValueExpression() == null) {
+                    continue;
+                }
+
+                if (expressions.putIfAbsent(kwarg.getKeyword(), kwarg.getValueExpression()) != null) {
+                    if (duplicates.isEmpty()) {
+                        duplicates = new ArrayList<>();
+                    }
+                    duplicates.add(kwarg);
+                }
+            }
+
+            return CachedValueProvider.Result.create(
+                    new SuperclassKeywords(Collections.unmodifiableMap(expressions), List.copyOf(duplicates)), node);
+        });
+    }
+
+    public static Map<String, PyExpression> getKeywordSuperclassExpressions(PyClass node) {
+        return getSuperclassKeywords(node).expressions();
+    }
+
+    /**
+     * Get the {@link PyType} of the given command parameter, as resolved from the file containing the
+     * {@code anchor} element.<br>
+     * <br>
+     * Parsed types are cached per file until the next PSI modification, so that the type string of each
+     * parameter is only parsed once no matter how many command classes the file contains.
+     *
+     * @param anchor the element to resolve the type relative to.
+     * @param parameter the parameter to get the type of.
+     * @param context the current {@link TypeEvalContext}.
+     * @return the parsed {@link PyType}, or {@code null} if the type could not be resolved.
+     */
+    public static @Nullable PyType getParameterType(
+            @NotNull PyClass anchor, @NotNull CommandParameter parameter, @NotNull TypeEvalContext context) {
+        var parsedTypes = CachedValuesManager.getCachedValue(
+                anchor.getContainingFile(),
+                () -> CachedValueProvider.Result.create(
+                        new ConcurrentHashMap<String, Optional<PyType>>(), PsiModificationTracker.MODIFICATION_COUNT));
+        return parsedTypes
+                .computeIfAbsent(parameter.type(), type -> Optional.ofNullable(
+                        PyTypeParser.parse(anchor, type, context).getType()))
+                .orElse(null);
     }
 }